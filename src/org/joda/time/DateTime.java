@@ -7,13 +7,24 @@ import java.util.Locale;
 
 import org.joda.time.base.AbstractInstant;
 import org.joda.time.base.BaseSingleFieldPeriod;
+import org.joda.time.field.FieldUtils;
 import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.internal.utils.ChronologyUtils;
 import org.joda.time.internal.utils.ISO8601Utils;
+import org.joda.time.internal.utils.ParsedInstant;
 
 
+/**
+ * An immutable instant in a time zone.
+ * <p>
+ * Only the millisecond instant and the zone are stored. Fields are computed
+ * arithmetically from the local millis, and a {@link Calendar} is only
+ * built when one is asked for through {@link #toCalendar()}.
+ */
 public final class DateTime extends AbstractInstant {
 
-	private volatile Calendar mCalendar;
+	private final long mMillis;
+	private final DateTimeZone mZone;
 	
 	public static DateTime now() {
 		return new DateTime();
@@ -27,27 +38,37 @@ public final class DateTime extends AbstractInstant {
 		DateTimeFormatter dtf = new DateTimeFormatter();
 		return dtf.parseDateTime(str);
 	}
+
+	/**
+	 * Parses an ISO8601 date-time, returning null rather than throwing if
+	 * the text is invalid.
+	 *
+	 * @param str  the text to parse, null is invalid
+	 * @return the parsed date-time, null if the text cannot be parsed
+	 */
+	public static DateTime tryParse(String str) {
+		DateTimeFormatter dtf = new DateTimeFormatter();
+		return dtf.tryParseDateTime(str);
+	}
 	
 	public DateTime() {
-		this(Calendar.getInstance());
-		mCalendar.setTimeInMillis(DateTimeUtils.currentTimeMillis());
+		this(DateTimeUtils.currentTimeMillis());
 	}
 	
 	public DateTime(DateTimeZone zone) {
-		this(Calendar.getInstance(), zone);
-		mCalendar.setTimeInMillis(DateTimeUtils.currentTimeMillis());
+		this(DateTimeUtils.currentTimeMillis(), zone);
 	}
 	
 	public DateTime(String str) {
-		try {
-			mCalendar = ISO8601Utils.parse(str);
-		} catch (ParseException e) {
-			throw new IllegalArgumentException(e);
-		}
+		this(parseInstant(str));
+	}
+
+	private DateTime(ParsedInstant parsed) {
+		this(parsed.getMillis(), parsed.getZone());
 	}
 	
 	public DateTime(DateTime dateTime) {
-		this(dateTime.toCalendar());	
+		this(dateTime.getMillis(), dateTime.getZone());
 	}
 	
 	public DateTime(long instant) {
@@ -55,11 +76,8 @@ public final class DateTime extends AbstractInstant {
 	}
 	
 	public DateTime(long instant, DateTimeZone zone) {
-		mCalendar = Calendar.getInstance();
-		mCalendar.setTimeInMillis(instant);
-		if (zone != null) {
-			mCalendar.setTimeZone(zone.getTimeZone());
-		}
+		mMillis = instant;
+		mZone = DateTimeUtils.getZone(zone);
 	}
 	
 	public DateTime(Calendar calendar) {
@@ -67,15 +85,16 @@ public final class DateTime extends AbstractInstant {
 	}
 	
 	public DateTime(Calendar calendar, DateTimeZone zone) {
-		mCalendar = calendar;
+		mMillis = calendar.getTimeInMillis();
 		if (zone != null) {
-			mCalendar.setTimeZone(zone.getTimeZone());
+			mZone = zone;
+		} else {
+			mZone = DateTimeZone.forTimeZone(calendar.getTimeZone());
 		}
 	}
 	
 	public DateTime(Date date) {
-		mCalendar = Calendar.getInstance();
-		mCalendar.setTime(date);
+		this(date.getTime());
 	}
 	
 	public DateTime(int year, 
@@ -101,54 +120,41 @@ public final class DateTime extends AbstractInstant {
 		} else if (dayOfMonth < 1 || dayOfMonth > 31) {
 			throw new IllegalArgumentException("dayOfMonth value must be between 1 and 31");
 		}
-		if (zone == null) {
-			mCalendar = Calendar.getInstance();
-		} else {
-			mCalendar = Calendar.getInstance(zone.getTimeZone());
-		}
-		mCalendar.set(Calendar.YEAR, year);
-		mCalendar.set(Calendar.MONTH, monthOfYear - 1); //Java months start on 0 for January
-		mCalendar.set(Calendar.DAY_OF_MONTH, dayOfMonth);
-		mCalendar.set(Calendar.HOUR_OF_DAY, hourOfDay);
-		mCalendar.set(Calendar.MINUTE, minuteOfHour);
-		mCalendar.set(Calendar.SECOND, secondOfMinute);
-		mCalendar.set(Calendar.MILLISECOND, millisOfSecond);
-        
-		//checks if calendar is valid
-		mCalendar.getTime();
-		if (!checkCalendar(year, monthOfYear, dayOfMonth, hourOfDay, minuteOfHour, secondOfMinute, millisOfSecond)) {
-			throw new IllegalArgumentException("Invalid calendar values");
-		}
+		mZone = DateTimeUtils.getZone(zone);
+		
+		//validates the fields, rejecting local times in a DST gap
+		long localMillis = ChronologyUtils.getDateTimeMillis(year, monthOfYear, dayOfMonth,
+				hourOfDay, minuteOfHour, secondOfMinute, millisOfSecond);
+		mMillis = mZone.convertLocalToUTC(localMillis, true);
 	}
 	
-	private boolean checkCalendar(int year, int monthOfYear, int dayOfMonth,
-			int hourOfDay, int minuteOfHour, int secondOfMinute,
-			int millisOfSecond) {
-		return getYear() == year
-					&& getMonthOfYear() == monthOfYear
-					&& getDayOfMonth() == dayOfMonth
-					&& getHourOfDay() == hourOfDay
-					&& getMinuteOfHour() == minuteOfHour
-					&& getSecondOfMinute() == secondOfMinute
-					&& getMillisOfSecond() == millisOfSecond;
-				
+	private static ParsedInstant parseInstant(String str) {
+		try {
+			return ISO8601Utils.parseInstant(str);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException(e);
+		}
 	}
 
+	/**
+	 * Returns a copy of this datetime at the first instant of its day, see
+	 * {@link DateTimeZone#getStartOfDay(long)}.
+	 */
 	public DateTime withTimeAtStartOfDay() {
-		return withTime(0, 0, 0, 0);
+		return withMillis(mZone.getStartOfDay(ChronologyUtils.getEpochDay(getLocalMillis())));
 	}
 	
 	public DateTime withDate(int year, 
 			int monthOfYear, int dayOfMonth) {
-		if (monthOfYear < 1 || monthOfYear > 12 || dayOfMonth < 1 || dayOfMonth > 31) {
+		if (monthOfYear < 1 || monthOfYear > 12 || dayOfMonth < 1 || dayOfMonth > 31
+				|| year < ChronologyUtils.MIN_YEAR || year > ChronologyUtils.MAX_YEAR) {
 			throw new IllegalArgumentException("Invalid calendar values");
 		}
 		
-		Calendar calendar = getNewCalendar();
-		calendar.set(Calendar.YEAR, year);
-		calendar.set(Calendar.MONTH, monthOfYear - 1); //Java months start on 0 for January
-		calendar.set(Calendar.DAY_OF_MONTH, dayOfMonth);
-		return new DateTime(calendar);
+		//like a lenient Calendar, a day past the end of the month rolls over
+		long localMillis = ChronologyUtils.toEpochDay(year, monthOfYear, dayOfMonth) * DateTimeConstants.MILLIS_PER_DAY
+				+ ChronologyUtils.getMillisOfDay(getLocalMillis());
+		return withMillis(mZone.convertLocalToUTC(localMillis, false));
 	}
 	
 	public DateTime withTime(int hourOfDay,
@@ -163,164 +169,222 @@ public final class DateTime extends AbstractInstant {
 	}
 
 	public long getMillis() {
-		return mCalendar.getTimeInMillis();
+		return mMillis;
+	}
+	
+	private long getLocalMillis() {
+		return mZone.convertUTCToLocal(mMillis);
+	}
+	
+	/**
+	 * Returns a copy of this datetime with different millis, in the same zone.
+	 * Fixed length units like hours are plain millisecond additions, exactly
+	 * what {@link Calendar#add(int, int)} does for them.
+	 *
+	 * @param newMillis  the new millis, from 1970-01-01T00:00:00Z
+	 * @return a copy of this datetime with different millis
+	 */
+	public DateTime withMillis(long newMillis) {
+		return (newMillis == mMillis ? this : new DateTime(newMillis, mZone));
 	}
 	
+	/**
+	 * Creates a calendar for use within this class, sharing the zone's JDK
+	 * time zone. Calendars given to callers must use a copy instead.
+	 */
 	private Calendar getNewCalendar() {
-		Calendar c = Calendar.getInstance(mCalendar.getTimeZone());
-		c.setTimeInMillis(mCalendar.getTimeInMillis());
+		Calendar c = Calendar.getInstance(mZone.getSharedTimeZone());
+		c.setTimeInMillis(mMillis);
 		return c;
 	}
 	
 	public DateTime plusMillis(int millis) {
 		if (millis == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.MILLISECOND, millis);
-		return new DateTime(c);
+		return withMillis(FieldUtils.safeAdd(mMillis, millis));
 	}
 	
 	public DateTime plusSeconds(int seconds) {
 		if (seconds == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.SECOND, seconds);
-		return new DateTime(c);
+		return withMillis(FieldUtils.safeAdd(mMillis, (long) seconds * DateTimeConstants.MILLIS_PER_SECOND));
 	}
 	
 	public DateTime plusMinutes(int minutes) {
 		if (minutes == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.MINUTE, minutes);
-		return new DateTime(c);
+		return withMillis(FieldUtils.safeAdd(mMillis, (long) minutes * DateTimeConstants.MILLIS_PER_MINUTE));
 	}
 	
 	public DateTime plusHours(int hours) {
 		if (hours == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.HOUR_OF_DAY, hours);
-		return new DateTime(c);
+		return withMillis(FieldUtils.safeAdd(mMillis, (long) hours * DateTimeConstants.MILLIS_PER_HOUR));
 	}
 	
 	public DateTime plusDays(int days) {
 		if (days == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.DAY_OF_MONTH, days);
-		return new DateTime(c);
+		return addDays(days);
 	}
 	
 	public DateTime plusWeeks(int weeks) {
 		if (weeks == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.WEEK_OF_YEAR, weeks);
-		return new DateTime(c);
+		return addDays(weeks * 7L);
 	}
 	
 	public DateTime plusMonths(int months) {
 		if (months == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.MONTH, months);
-		return new DateTime(c);
+		return addMonths(months);
 	}
 	
 	public DateTime plusYears(int years) {
 		if (years == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.YEAR, years);
-		return new DateTime(c);
+		return addMonths(years * 12L);
+	}
+	
+	public DateTime minusMillis(int millis) {
+		if (millis == 0) return this;
+		
+		return withMillis(FieldUtils.safeSubtract(mMillis, millis));
 	}
 	
 	public DateTime minusSeconds(int seconds) {
 		if (seconds == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.SECOND, -seconds);
-		return new DateTime(c);
+		return withMillis(FieldUtils.safeSubtract(mMillis, (long) seconds * DateTimeConstants.MILLIS_PER_SECOND));
 	}
 	
 	public DateTime minusMinutes(int minutes) {
 		if (minutes == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.MINUTE, -minutes);
-		return new DateTime(c);
+		return withMillis(FieldUtils.safeSubtract(mMillis, (long) minutes * DateTimeConstants.MILLIS_PER_MINUTE));
 	}
 	
 	public DateTime minusHours(int hours) {
 		if (hours == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.HOUR_OF_DAY, -hours);
-		return new DateTime(c);
+		return withMillis(FieldUtils.safeSubtract(mMillis, (long) hours * DateTimeConstants.MILLIS_PER_HOUR));
 	}
 	
 	public DateTime minusDays(int days) {
 		if (days == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.DAY_OF_YEAR, -days);
-		return new DateTime(c);
+		return addDays(-(long) days);
 	}
 	
 	public DateTime minusMonths(int months) {
 		if (months == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.MONTH, -months);
-		return new DateTime(c);
+		return addMonths(-(long) months);
 	}
 	
 	public DateTime minusYears(int years) {
 		if (years == 0) return this;
 		
-		Calendar c = getNewCalendar();
-		c.add(Calendar.YEAR, -years);
-		return new DateTime(c);
+		return addMonths(years * -12L);
+	}
+	
+	/**
+	 * Adds days keeping the local time of day, replicating
+	 * {@link Calendar#add(int, int)}: the offset of the original instant is
+	 * kept, and only if the new date has a different offset the result is
+	 * moved by the difference, as long as that doesn't change the date.
+	 */
+	private DateTime addDays(long days) {
+		long localMillis = getLocalMillis();
+		int oldOffset = (int) (localMillis - mMillis);
+		long newLocalMillis = FieldUtils.safeAdd(localMillis, FieldUtils.safeMultiply(days, DateTimeConstants.MILLIS_PER_DAY));
+		long instant = newLocalMillis - oldOffset;
+		int newOffset = mZone.getOffset(instant);
+		if (newOffset != oldOffset) {
+			long adjusted = instant + oldOffset - newOffset;
+			if (ChronologyUtils.getEpochDay(mZone.convertUTCToLocal(adjusted)) == ChronologyUtils.getEpochDay(newLocalMillis)) {
+				instant = adjusted;
+			}
+		}
+		return withMillis(instant);
+	}
+	
+	/**
+	 * Adds months keeping the local time of day. The day of month is clamped
+	 * to the end of the month and the local time resolved again in the zone,
+	 * as a Calendar does.
+	 */
+	private DateTime addMonths(long months) {
+		long localMillis = ChronologyUtils.addMonths(getLocalMillis(), months);
+		return withMillis(mZone.convertLocalToUTC(localMillis, false));
 	}
 	
 	public DateTime plus(BaseSingleFieldPeriod period) {
+		switch (period.getFieldType()) {
+		case Calendar.MILLISECOND:
+			return plusMillis(period.getValue());
+		case Calendar.SECOND:
+			return plusSeconds(period.getValue());
+		case Calendar.MINUTE:
+			return plusMinutes(period.getValue());
+		case Calendar.HOUR:
+		case Calendar.HOUR_OF_DAY:
+			return plusHours(period.getValue());
+		case Calendar.DAY_OF_MONTH:
+		case Calendar.DAY_OF_YEAR:
+			return plusDays(period.getValue());
+		case Calendar.WEEK_OF_YEAR:
+			return plusWeeks(period.getValue());
+		case Calendar.MONTH:
+			return plusMonths(period.getValue());
+		case Calendar.YEAR:
+			return plusYears(period.getValue());
+		}
 		Calendar c = getNewCalendar();
 		c.add(period.getFieldType(), period.getValue());
 		return new DateTime(c);
 	}
 	
 	public int getMillisOfSecond() {
-		return mCalendar.get(Calendar.MILLISECOND);
+		return ChronologyUtils.getMillisOfDay(getLocalMillis()) % DateTimeConstants.MILLIS_PER_SECOND;
 	}
 	
 	public int getSecondOfMinute() {
-		return mCalendar.get(Calendar.SECOND);
+		return (ChronologyUtils.getMillisOfDay(getLocalMillis()) / DateTimeConstants.MILLIS_PER_SECOND) % DateTimeConstants.SECONDS_PER_MINUTE;
 	}
 	
 	public int getMinuteOfHour() {
-		return mCalendar.get(Calendar.MINUTE);
+		return (ChronologyUtils.getMillisOfDay(getLocalMillis()) / DateTimeConstants.MILLIS_PER_MINUTE) % DateTimeConstants.MINUTES_PER_HOUR;
 	}
 	
 	public int getHourOfDay() {
-		return mCalendar.get(Calendar.HOUR_OF_DAY);
+		return ChronologyUtils.getMillisOfDay(getLocalMillis()) / DateTimeConstants.MILLIS_PER_HOUR;
 	}
 	
 	public int getDayOfMonth() {
-		return mCalendar.get(Calendar.DAY_OF_MONTH);
-	}
-	
+		long localMillis = getLocalMillis();
+		int year = ChronologyUtils.getYear(localMillis);
+		int month = ChronologyUtils.getMonthOfYear(localMillis, year);
+		return ChronologyUtils.getDayOfMonth(localMillis, year, month);
+	}
+	
+	/**
+	 * Gets the ISO week of the weekyear: weeks start on Monday and the
+	 * first week of the year has at least four days. Unlike
+	 * <code>Calendar.WEEK_OF_YEAR</code>, this does not depend on the
+	 * default locale, so under a locale such as en_US the two can differ.
+	 */
 	public int getWeekOfWeekyear() {
-		return mCalendar.get(Calendar.WEEK_OF_YEAR);
+		return ChronologyUtils.getWeekOfWeekyear(getLocalMillis());
 	}
 	
 	public int getMonthOfYear() {
-		//Calendar has a 0-based index for months
-		return mCalendar.get(Calendar.MONTH) + 1;
+		long localMillis = getLocalMillis();
+		return ChronologyUtils.getMonthOfYear(localMillis, ChronologyUtils.getYear(localMillis));
 	}
 	
 	public int getYear() {
-		return mCalendar.get(Calendar.YEAR);
+		return ChronologyUtils.getYear(getLocalMillis());
 	}
 	
     public boolean isBefore(long instant) {
@@ -348,43 +412,52 @@ public final class DateTime extends AbstractInstant {
     }
     
     public LocalTime toLocalTime() {
-    	return new LocalTime(mCalendar);
+    	return LocalTime.fromMillisOfDay(ChronologyUtils.getMillisOfDay(getLocalMillis()));
     }
     
     public LocalDate toLocalDate() {
-    	return new LocalDate(mCalendar.get(Calendar.YEAR), mCalendar.get(Calendar.MONTH), mCalendar.get(Calendar.DAY_OF_MONTH));
+    	return LocalDate.fromEpochDay(ChronologyUtils.getEpochDay(getLocalMillis()));
     }
     
+    /**
+     * Builds a new Calendar for this instant and zone. The calendar is
+     * created on each call, changes made to it don't affect this instance.
+     */
     public Calendar toCalendar() {
-    	return mCalendar;
+    	Calendar cal = Calendar.getInstance(mZone.getTimeZone());
+    	cal.setTimeInMillis(mMillis);
+    	return cal;
     }
     
     public Calendar toCalendar(Locale locale) {
     	if (locale == null) {
             locale = Locale.getDefault();
         }
-        Calendar cal = Calendar.getInstance(mCalendar.getTimeZone(), locale);
-        cal.setTime(mCalendar.getTime());
+        Calendar cal = Calendar.getInstance(mZone.getTimeZone(), locale);
+        cal.setTimeInMillis(mMillis);
         return cal;
     }
     
     public DateTime toDateTime(DateTimeZone zone) {
-    	Calendar c = Calendar.getInstance();
-    	if (zone != null) {
-    		c.setTimeZone(zone.getTimeZone());
-    	}
-    	c.setTimeInMillis(mCalendar.getTimeInMillis());
-    	return new DateTime(c);
+    	return new DateTime(mMillis, zone);
     }
     
     public Date toDate() {
-    	return mCalendar.getTime();
+    	return new Date(mMillis);
     }
     
     public LocalDateTime toLocalDateTime() {
-		return new LocalDateTime(mCalendar);
+    	return LocalDateTime.fromLocalMillis(getLocalMillis());
 	}
     
+    public Property millisOfSecond() {
+    	return new Property(this, Calendar.MILLISECOND);
+    }
+    
+    public Property secondOfMinute() {
+    	return new Property(this, Calendar.SECOND);
+    }
+    
     public Property minuteOfHour() {
     	return new Property(this, Calendar.MINUTE);
     }
@@ -393,83 +466,197 @@ public final class DateTime extends AbstractInstant {
     	return new Property(this, Calendar.HOUR_OF_DAY);
     }
     
+    public Property dayOfMonth() {
+    	return new Property(this, Calendar.DAY_OF_MONTH);
+    }
+    
+    public Property weekOfWeekyear() {
+    	return new Property(this, Calendar.WEEK_OF_YEAR);
+    }
+    
+    public Property monthOfYear() {
+    	return new Property(this, Calendar.MONTH);
+    }
+    
+    public Property year() {
+    	return new Property(this, Calendar.YEAR);
+    }
+    
+    /**
+     * A field of a DateTime, identified by its Calendar field constant.
+     * <p>
+     * Rounding is done arithmetically in the zone of the DateTime, and always
+     * returns a new instance. Fields up to the hour are rounded keeping the
+     * offset of the instant, larger fields are rounded in local time and
+     * resolved again in the zone.
+     */
     public static final class Property {
     	
-    	private DateTime mDateTime;
-    	private int mField;
+    	private final DateTime mDateTime;
+    	private final int mField;
     	
     	public Property(DateTime dateTime, int field) {
-    		mDateTime = dateTime;
-    		mField = field;
-    	}
-    	
-    	public DateTime roundFloorCopy() {
-    		Calendar c = mDateTime.toCalendar();
-    		switch (mField) {
+    		switch (field) {
     		case Calendar.MILLISECOND:
-    			//do nothing
-    			break;
     		case Calendar.SECOND:
-    			c.set(Calendar.MILLISECOND, 0);
-    			break;
     		case Calendar.MINUTE:
-    			c.set(Calendar.MILLISECOND, 0);
-    			c.set(Calendar.SECOND, 0);
-    			break;
     		case Calendar.HOUR_OF_DAY:
-    			c.set(Calendar.MILLISECOND, 0);
-    			c.set(Calendar.SECOND, 0);
-    			c.set(Calendar.MINUTE, 0);
+    		case Calendar.DAY_OF_MONTH:
+    		case Calendar.WEEK_OF_YEAR:
+    		case Calendar.MONTH:
+    		case Calendar.YEAR:
     			break;
+    		default:
+    			throw new IllegalArgumentException("Unsupported field: " + field);
     		}
-    		return new DateTime(c);
+    		mDateTime = dateTime;
+    		mField = field;
     	}
     	
-    	public DateTime roundCeilingCopy() {
-    		Calendar c = mDateTime.toCalendar();
+    	public DateTime getDateTime() {
+    		return mDateTime;
+    	}
+    	
+    	/**
+    	 * Gets the value of the field, months being 1-based.
+    	 */
+    	public int get() {
+    		return get(mDateTime);
+    	}
+    	
+    	private int get(DateTime dateTime) {
     		switch (mField) {
     		case Calendar.MILLISECOND:
-    			//do nothing
-    			break;
+    			return dateTime.getMillisOfSecond();
     		case Calendar.SECOND:
-    			c.set(Calendar.MILLISECOND, 0);
-    			c.add(Calendar.SECOND, 1);
-    			break;
+    			return dateTime.getSecondOfMinute();
     		case Calendar.MINUTE:
-    			c.set(Calendar.MILLISECOND, 0);
-    			c.set(Calendar.SECOND, 0);
-    			c.add(Calendar.MINUTE, 1);
-    			break;
+    			return dateTime.getMinuteOfHour();
     		case Calendar.HOUR_OF_DAY:
-    			c.set(Calendar.MILLISECOND, 0);
-    			c.set(Calendar.SECOND, 0);
-    			c.set(Calendar.MINUTE, 0);
-    			c.add(Calendar.HOUR_OF_DAY, 1);
-    			break;
+    			return dateTime.getHourOfDay();
+    		case Calendar.DAY_OF_MONTH:
+    			return dateTime.getDayOfMonth();
+    		case Calendar.WEEK_OF_YEAR:
+    			return dateTime.getWeekOfWeekyear();
+    		case Calendar.MONTH:
+    			return dateTime.getMonthOfYear();
+    		default:
+    			return dateTime.getYear();
     		}
-    		return new DateTime(c);
+    	}
+    	
+    	/**
+    	 * Rounds to the start of the field, for example the start of the hour.
+    	 */
+    	public DateTime roundFloorCopy() {
+    		return mDateTime.withMillis(roundFloor());
+    	}
+    	
+    	/**
+    	 * Rounds to the start of the next field unless the datetime is already
+    	 * at the start of one.
+    	 */
+    	public DateTime roundCeilingCopy() {
+    		return mDateTime.withMillis(roundCeiling(roundFloor()));
+    	}
+    	
+    	/**
+    	 * Rounds to the nearest start of field, favouring the floor on a tie.
+    	 */
+    	public DateTime roundHalfFloorCopy() {
+    		long floor = roundFloor();
+    		long ceiling = roundCeiling(floor);
+    		long instant = mDateTime.getMillis();
+    		return mDateTime.withMillis(instant - floor <= ceiling - instant ? floor : ceiling);
+    	}
+    	
+    	/**
+    	 * Rounds to the nearest start of field, favouring the ceiling on a tie.
+    	 */
+    	public DateTime roundHalfCeilingCopy() {
+    		long floor = roundFloor();
+    		long ceiling = roundCeiling(floor);
+    		long instant = mDateTime.getMillis();
+    		return mDateTime.withMillis(ceiling - instant <= instant - floor ? ceiling : floor);
+    	}
+    	
+    	/**
+    	 * Rounds to the nearest start of field. On a tie this rounds to the
+    	 * floor if its field value is even and to the ceiling otherwise, as
+    	 * the ceiling's value need not be the next one when the field wraps.
+    	 */
+    	public DateTime roundHalfEvenCopy() {
+    		long floor = roundFloor();
+    		long ceiling = roundCeiling(floor);
+    		long instant = mDateTime.getMillis();
+    		long diffFromFloor = instant - floor;
+    		long diffToCeiling = ceiling - instant;
+    		if (diffFromFloor < diffToCeiling) {
+    			return mDateTime.withMillis(floor);
+    		} else if (diffToCeiling < diffFromFloor) {
+    			return mDateTime.withMillis(ceiling);
+    		}
+    		DateTime floorDateTime = mDateTime.withMillis(floor);
+    		return ((get(floorDateTime) & 1) == 0 ? floorDateTime : mDateTime.withMillis(ceiling));
+    	}
+    	
+    	/**
+    	 * Gets the milliseconds elapsed since the start of the field.
+    	 */
+    	public long remainder() {
+    		return mDateTime.getMillis() - roundFloor();
+    	}
+    	
+    	private boolean isTimeField() {
+    		return mField != Calendar.DAY_OF_MONTH && mField != Calendar.WEEK_OF_YEAR
+    				&& mField != Calendar.MONTH && mField != Calendar.YEAR;
+    	}
+    	
+    	private long roundFloor() {
+    		long instant = mDateTime.getMillis();
+    		DateTimeZone zone = mDateTime.getZone();
+    		if (isTimeField()) {
+    			int offset = zone.getOffset(instant);
+    			return ChronologyUtils.roundFloor(instant + offset, mField) - offset;
+    		}
+    		long localMillis = zone.convertUTCToLocal(instant);
+    		long floorLocalMillis = ChronologyUtils.roundFloor(localMillis, mField);
+    		if (floorLocalMillis == localMillis) {
+    			return instant;
+    		}
+    		return zone.convertLocalToUTC(floorLocalMillis, false);
+    	}
+    	
+    	private long roundCeiling(long floor) {
+    		long instant = mDateTime.getMillis();
+    		if (floor == instant) {
+    			return instant;
+    		}
+    		DateTimeZone zone = mDateTime.getZone();
+    		if (isTimeField()) {
+    			int offset = zone.getOffset(instant);
+    			return ChronologyUtils.addUnit(floor + offset, mField) - offset;
+    		}
+    		long floorLocalMillis = ChronologyUtils.roundFloor(zone.convertUTCToLocal(instant), mField);
+    		return zone.convertLocalToUTC(ChronologyUtils.addUnit(floorLocalMillis, mField), false);
     	}
     }
 
 	@Override
 	public int compareTo(ReadableInstant another) {
-		if (another instanceof DateTime) {
-			return mCalendar.compareTo(((DateTime) another).toCalendar());
-		} else {
-			long lhs = getMillis();
-			long rhs = another.getMillis();
-			return lhs < rhs ? -1 : (lhs == rhs ? 0 : 1);
-		}
+		long lhs = mMillis;
+		long rhs = another.getMillis();
+		return lhs < rhs ? -1 : (lhs == rhs ? 0 : 1);
 	}
 
 	@Override
 	public DateTimeZone getZone() {
-		return new DateTimeZone(mCalendar.getTimeZone());
+		return mZone;
 	}
 	
 	@Override
 	public String toString() {
-		return ISO8601Utils.fromCalendar(mCalendar);
+		return ISO8601Utils.format(mMillis, mZone.getOffset(mMillis));
 	}
 
 }
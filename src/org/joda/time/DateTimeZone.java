@@ -5,40 +5,131 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
+import java.util.SimpleTimeZone;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.joda.time.field.FieldUtils;
 import org.joda.time.format.FormatUtils;
+import org.joda.time.tz.ZoneTransitions;
 
 public final class DateTimeZone {
 
 	/** Maximum offset. */
     private static final int MAX_MILLIS = (86400 * 1000) - 1;
     
+    private static final int QUARTER_HOUR = 15 * DateTimeConstants.MILLIS_PER_MINUTE;
+    
+    /** Number of quarter hours in the largest offset, 23:45. */
+    private static final int MAX_QUARTER_HOURS = MAX_MILLIS / QUARTER_HOUR;
+    
+    /** Size of the start of day cache of each zone, over a year of days. */
+    private static final int DAY_CACHE_SIZE = 1 << 9;
+    private static final int DAY_CACHE_MASK = DAY_CACHE_SIZE - 1;
+    
+    /** Fixed offset zones for every quarter hour, indexed from -23:45. */
+    private static final DateTimeZone[] cFixedZones = new DateTimeZone[2 * MAX_QUARTER_HOURS + 1];
+    
+    /**
+     * Canonical instances, keyed by the ID of the JDK time zone they wrap.
+     * Only IDs the JDK resolves to themselves are cached, which keeps the
+     * map bounded whatever strings are passed to {@link #forID(String)}.
+     */
+    private static final ConcurrentMap<String, DateTimeZone> cZoneCache =
+    		new ConcurrentHashMap<String, DateTimeZone>();
+    
+    /**
+     * Resolution policy using the offset in force before the transition: a
+     * local time in an overlap gives the earlier instant, and one in a gap
+     * is shifted forward by the length of the gap.
+     */
+    public static final int RESOLVE_EARLIER_OFFSET = 0;
+    /**
+     * Resolution policy using the offset in force after the transition: a
+     * local time in an overlap gives the later instant, and one in a gap
+     * is shifted back by the length of the gap.
+     */
+    public static final int RESOLVE_LATER_OFFSET = 1;
+    /**
+     * Resolution policy of {@link java.util.GregorianCalendar}: a local time
+     * in an overlap gives the later instant, and one in a gap is shifted
+     * forward by the length of the gap.
+     */
+    public static final int RESOLVE_SHIFT_FORWARD = 2;
+    /**
+     * Resolution policy rejecting a local time in a gap with
+     * {@link #INVALID_MILLIS}. A local time in an overlap gives the later
+     * instant.
+     */
+    public static final int RESOLVE_REJECT = 3;
+    
+    /** The result of a local time rejected by {@link #RESOLVE_REJECT}. */
+    public static final long INVALID_MILLIS = Long.MIN_VALUE;
+    
+    /** A local time that occurs exactly once. */
+    public static final int LOCAL_NORMAL = 0;
+    /** A local time skipped by a transition, such as the start of summer time. */
+    public static final int LOCAL_GAP = 1;
+    /** A local time that occurs twice, such as at the end of summer time. */
+    public static final int LOCAL_OVERLAP = 2;
+    
 	public static final DateTimeZone UTC = forTimeZone(TimeZone.getTimeZone("UTC"));
 	
 	private final String mId;
 	private final TimeZone mTimeZone; 
 	
+	/** The compiled offsets of mTimeZone, built on first use. */
+	private volatile ZoneTransitions mTransitions;
+	
+	/** Cache of start of day instants, indexed by epoch day, built on first use. */
+	private volatile DayStart[] mDayStarts;
+	
 	public static Set<String> getAvailableIDs() {
 		return new HashSet<String>(Arrays.asList(TimeZone.getAvailableIDs()));
 	}
 	
+	/**
+	 * Gets the default zone, read from the JDK default time zone on every
+	 * call so that changes made through {@link TimeZone#setDefault(TimeZone)}
+	 * are seen.
+	 * 
+	 * @return the default zone
+	 */
 	public static DateTimeZone getDefault() {
 		return DateTimeZone.forTimeZone(TimeZone.getDefault());
 	}
 	
+	/**
+	 * Sets the default zone, and the JDK default time zone to match.
+	 * 
+	 * @param timezone  the zone
+	 * @throws IllegalArgumentException if the zone is null
+	 * @throws SecurityException if the JDK default time zone may not be set
+	 */
 	public static void setDefault(DateTimeZone timezone) {
 		if (timezone == null) {
 			throw new IllegalArgumentException("Invalid time zone");
 		}
 		
-		if (!TimeZone.getDefault().equals(timezone.getTimeZone())) {
+		if (!TimeZone.getDefault().equals(timezone.mTimeZone)) {
 			TimeZone.setDefault(timezone.getTimeZone());
 		}
 	}
 	
+	/**
+	 * Gets the time zone for an ID. Zones are interned, so calls with the
+	 * same ID return the same instance without cloning the JDK zone again.
+	 * As with {@link TimeZone#getTimeZone(String)}, an unknown ID gives GMT.
+	 * 
+	 * @param id  the zone ID
+	 * @return the canonical zone for the ID
+	 */
 	public static DateTimeZone forID(String id) {
+		DateTimeZone zone = cZoneCache.get(id);
+		if (zone != null) {
+			return zone;
+		}
 		return forTimeZone(TimeZone.getTimeZone(id));
 	}
 	
@@ -59,39 +150,76 @@ public final class DateTimeZone {
         if (hoursOffset > 0 && minutesOffset < 0) {
             throw new IllegalArgumentException("Positive hours must not have negative minutes: " + minutesOffset);
         }
-        if (hoursOffset == 0 && minutesOffset == 0) {
-			return forTimeZone(TimeZone.getTimeZone("UTC"));
-        } else if ((hoursOffset == 0 && minutesOffset > 0) || hoursOffset > 0) {
-        	return forID("GMT+" + formatTime(hoursOffset) + ":" + formatTime(minutesOffset));
-        } else if (hoursOffset == 0 && minutesOffset < 0) {
-        	return forID("GMT-" + formatTime(hoursOffset) + ":" + formatTime(Math.abs(minutesOffset)));
-        } else if (hoursOffset < 0) {
-        	return forID("GMT" + hoursOffset + ":" + formatTime(Math.abs(minutesOffset)));
+        int hoursInMinutes = hoursOffset * 60;
+        if (hoursInMinutes < 0) {
+            minutesOffset = hoursInMinutes - Math.abs(minutesOffset);
+        } else {
+            minutesOffset = hoursInMinutes + minutesOffset;
         }
-        throw new IllegalArgumentException("Illegal offset values");
+        int offset = minutesOffset * DateTimeConstants.MILLIS_PER_MINUTE;
+        return fixedOffsetZone(offset);
 	}
 	
-	private static String formatTime(int value) {
-		return ("00" + value).substring(Integer.toString(value).length());
+	/**
+	 * Gets a time zone instance for the specified offset to UTC in milliseconds.
+	 * Offsets on a quarter hour are served from a preallocated table, so no
+	 * ID is formatted and no JDK zone is looked up.
+	 *
+	 * @param millisOffset  the offset in millis, from -23:59:59.999 to +23:59:59.999
+	 * @return the DateTimeZone object for the offset
+	 */
+	public static DateTimeZone forOffsetMillis(int millisOffset) {
+		if (millisOffset < -MAX_MILLIS || millisOffset > MAX_MILLIS) {
+			throw new IllegalArgumentException("Millis out of range: " + millisOffset);
+		}
+		return fixedOffsetZone(millisOffset);
 	}
 	
-	private static synchronized DateTimeZone fixedOffsetZone(String id, int offset) {
+	private static DateTimeZone fixedOffsetZone(int offset) {
         if (offset == 0) {
             return DateTimeZone.UTC;
         }
-        DateTimeZone zone = new DateTimeZone(id, offset);
+        if (offset % QUARTER_HOUR != 0) {
+        	return new DateTimeZone("GMT" + printOffset(offset), offset);
+        }
+        int index = offset / QUARTER_HOUR + MAX_QUARTER_HOURS;
+        DateTimeZone zone = cFixedZones[index];
+        if (zone == null) {
+        	//zones are immutable, so building one twice in a race is harmless
+        	zone = new DateTimeZone("GMT" + printOffset(offset), offset);
+        	cFixedZones[index] = zone;
+        }
         return zone;
     }
 	
 	/**
-	 * Dummy function just to preserve the mapping with the original 
-	 * DateTimeZone class from joda. Here we just return the same timezone
-	 * passed as parameter
-	 * @param timezone
-	 * @return
+	 * Gets the time zone wrapping a JDK time zone. If the JDK zone has the
+	 * rules of the zone registered under its ID, the canonical interned
+	 * instance is returned. Custom zones get a new, non-interned instance.
+	 * 
+	 * @param timezone  the JDK time zone
+	 * @return the zone
 	 */
 	public static DateTimeZone forTimeZone(TimeZone timezone) {
-		return new DateTimeZone(timezone);
+		String id = timezone.getID();
+		if (id == null || "".equals(id)) {
+			throw new IllegalArgumentException("Invalid time zone");
+		}
+		DateTimeZone zone = cZoneCache.get(id);
+		if (zone != null) {
+			if (zone.mTimeZone == timezone || zone.mTimeZone.hasSameRules(timezone)) {
+				return zone;
+			}
+			return new DateTimeZone(timezone);
+		}
+		
+		TimeZone canonical = TimeZone.getTimeZone(id);
+		if (!id.equals(canonical.getID()) || !canonical.hasSameRules(timezone)) {
+			return new DateTimeZone(timezone);
+		}
+		zone = new DateTimeZone(canonical);
+		DateTimeZone existing = cZoneCache.putIfAbsent(id, zone);
+		return (existing != null ? existing : zone);
 	}
 	
 	public DateTimeZone(TimeZone timezone) {
@@ -107,8 +235,7 @@ public final class DateTimeZone {
 	}
 	
 	public DateTimeZone(String customId, int offset) {
-		mTimeZone = TimeZone.getTimeZone("UTC");
-		mTimeZone.setRawOffset(offset);
+		mTimeZone = new SimpleTimeZone(offset, customId);
 		mId = customId;
 	}
 	
@@ -116,15 +243,30 @@ public final class DateTimeZone {
 		this(TimeZone.getTimeZone(forID));
 	}
 	
+	/**
+	 * Gets a copy of the wrapped JDK time zone. Zones are interned, so the
+	 * wrapped instance is shared by every user of the ID and is never
+	 * handed out.
+	 * 
+	 * @return a new JDK time zone with the rules of this zone
+	 */
 	public TimeZone getTimeZone() {
+		return (TimeZone) mTimeZone.clone();
+	}
+	
+	/**
+	 * Gets the wrapped JDK time zone without copying it. The instance is
+	 * shared, so it must not be modified or escape the package.
+	 */
+	TimeZone getSharedTimeZone() {
 		return mTimeZone;
 	}
 	
 	public TimeZone toTimeZone() {
 		if (!mId.equals(mTimeZone.getID())) {
-			return new java.util.SimpleTimeZone(mTimeZone.getRawOffset(), getID());
+			return new SimpleTimeZone(mTimeZone.getRawOffset(), getID());
 		}
-		return mTimeZone;
+		return getTimeZone();
 	}
 	
 	public String getID() {
@@ -138,7 +280,208 @@ public final class DateTimeZone {
      * @return the millisecond offset to add to UTC to get local time
      */
     public int getOffset(long instant) {
-    	return mTimeZone.getOffset(instant);
+    	return getTransitions().getOffset(instant);
+    }
+    
+    /**
+     * Advances the given instant to where the time zone offset or name
+     * changes. If the instant returned is exactly the same as passed in,
+     * then no changes occur after the given instant.
+     *
+     * @param instant  milliseconds from 1970-01-01T00:00:00Z
+     * @return milliseconds from 1970-01-01T00:00:00Z
+     */
+    public long nextTransition(long instant) {
+    	return getTransitions().nextTransition(instant);
+    }
+    
+    /**
+     * Gets the last instant strictly before the given one where the time
+     * zone offset changes. If the instant returned is exactly the same as
+     * passed in, then no changes occur before the given instant.
+     *
+     * @param instant  milliseconds from 1970-01-01T00:00:00Z
+     * @return milliseconds from 1970-01-01T00:00:00Z
+     */
+    public long previousTransition(long instant) {
+    	return getTransitions().previousTransition(instant);
+    }
+    
+    /**
+     * Returns true if this time zone has no transitions.
+     *
+     * @return true if no transitions
+     */
+    public boolean isFixed() {
+    	return getTransitions().isFixed();
+    }
+    
+    private ZoneTransitions getTransitions() {
+    	ZoneTransitions transitions = mTransitions;
+    	if (transitions == null) {
+    		//compiling twice in a race is harmless
+    		DateTimeZone canonical = getCanonical();
+    		transitions = (canonical != null ? canonical.getTransitions() : ZoneTransitions.compile(mTimeZone));
+    		mTransitions = transitions;
+    	}
+    	return transitions;
+    }
+    
+    /**
+     * Gets the interned zone with the ID and rules of this one, so that a
+     * zone from the constructors shares its compiled transitions rather
+     * than compiling its own.
+     * 
+     * @return the interned zone, null if this zone is interned or there's none
+     */
+    private DateTimeZone getCanonical() {
+    	if (cZoneCache.get(mId) == this) {
+    		return null;
+    	}
+    	DateTimeZone zone = forTimeZone(mTimeZone);
+    	return (zone != this && zone == cZoneCache.get(mId) ? zone : null);
+    }
+    
+    /**
+     * Converts a standard UTC instant to a local instant with the same
+     * local time. The local millis are the input to the arithmetic field
+     * calculations, see {@link org.joda.time.internal.utils.ChronologyUtils}.
+     *
+     * @param instantUTC  the UTC instant to convert to local
+     * @return the local instant with the same local time
+     * @throws ArithmeticException if the result overflows a long
+     */
+    public long convertUTCToLocal(long instantUTC) {
+        int offset = getOffset(instantUTC);
+        long instantLocal = instantUTC + offset;
+        // If there is a sign change, but the two values have the same sign...
+        if ((instantUTC ^ instantLocal) < 0 && (instantUTC ^ offset) >= 0) {
+            throw new ArithmeticException("Adding time zone offset caused overflow");
+        }
+        return instantLocal;
+    }
+
+    /**
+     * Converts a local instant to a standard UTC instant with the same
+     * local time, resolving offset transitions the way
+     * {@link java.util.GregorianCalendar} does.
+     * <p>
+     * A local time in an overlap resolves to the offset in force after the
+     * transition. A local time in a gap is shifted forward by the length of
+     * the gap, unless <code>strict</code> is set.
+     *
+     * @param instantLocal  the local instant to convert to UTC
+     * @param strict  whether the conversion should reject local times in a gap
+     * @return the UTC instant with the same local time
+     * @throws IllegalInstantException if strict and the local time is in a gap
+     */
+    public long convertLocalToUTC(long instantLocal, boolean strict) {
+        long instant = convertLocalToUTC(instantLocal, strict ? RESOLVE_REJECT : RESOLVE_SHIFT_FORWARD);
+        if (instant == INVALID_MILLIS) {
+            throw new IllegalInstantException(instantLocal, getID());
+        }
+        return instant;
+    }
+
+    /**
+     * Converts a local instant to a standard UTC instant with the same
+     * local time, resolving offset transitions with a policy. No exception
+     * is thrown for a local time in a gap.
+     *
+     * @param instantLocal  the local instant to convert to UTC
+     * @param policy  one of the RESOLVE constants, such as {@link #RESOLVE_SHIFT_FORWARD}
+     * @return the UTC instant, or {@link #INVALID_MILLIS} if the policy
+     *  rejects the local time
+     * @throws IllegalArgumentException if the policy is not one of the constants
+     */
+    public long convertLocalToUTC(long instantLocal, int policy) {
+        if (policy < RESOLVE_EARLIER_OFFSET || policy > RESOLVE_REJECT) {
+            throw new IllegalArgumentException("Invalid resolution policy: " + policy);
+        }
+        // offsets can't exceed a day, so any transition affecting this local
+        // time lies between these two instants
+        int offsetBefore = getOffset(instantLocal - DateTimeConstants.MILLIS_PER_DAY);
+        int offsetAfter = getOffset(instantLocal + DateTimeConstants.MILLIS_PER_DAY);
+        boolean validAfter = (getOffset(instantLocal - offsetAfter) == offsetAfter);
+        boolean validBefore = (offsetBefore != offsetAfter && getOffset(instantLocal - offsetBefore) == offsetBefore);
+        if (validAfter && validBefore) {
+            // overlap
+            return instantLocal - (policy == RESOLVE_EARLIER_OFFSET ? offsetBefore : offsetAfter);
+        }
+        if (validAfter) {
+            return instantLocal - offsetAfter;
+        }
+        if (validBefore) {
+            return instantLocal - offsetBefore;
+        }
+        // gap
+        switch (policy) {
+            case RESOLVE_LATER_OFFSET:
+                return instantLocal - offsetAfter;
+            case RESOLVE_REJECT:
+                return INVALID_MILLIS;
+            default:
+                return instantLocal - offsetBefore;
+        }
+    }
+
+    /**
+     * Checks whether a local time is skipped or repeated by an offset
+     * transition of this zone.
+     *
+     * @param instantLocal  the local instant
+     * @return {@link #LOCAL_NORMAL}, {@link #LOCAL_GAP} or {@link #LOCAL_OVERLAP}
+     */
+    public int getLocalTransitionType(long instantLocal) {
+        int offsetBefore = getOffset(instantLocal - DateTimeConstants.MILLIS_PER_DAY);
+        int offsetAfter = getOffset(instantLocal + DateTimeConstants.MILLIS_PER_DAY);
+        boolean validAfter = (getOffset(instantLocal - offsetAfter) == offsetAfter);
+        boolean validBefore = (offsetBefore != offsetAfter && getOffset(instantLocal - offsetBefore) == offsetBefore);
+        if (validAfter && validBefore) {
+            return LOCAL_OVERLAP;
+        }
+        return (validAfter || validBefore ? LOCAL_NORMAL : LOCAL_GAP);
+    }
+
+    /**
+     * Gets the first instant of a local day in this zone.
+     * <p>
+     * This is usually local midnight. If midnight is skipped by a gap, the
+     * day starts where the gap ends. If midnight occurs twice, the day starts
+     * at the first one. The instants are cached per zone, so bucketing
+     * instants by day costs one array lookup.
+     *
+     * @param epochDay  the local day, counted from 1970-01-01
+     * @return the UTC instant the day starts at
+     */
+    public long getStartOfDay(long epochDay) {
+    	DayStart[] cache = mDayStarts;
+    	if (cache == null) {
+    		//building the cache twice in a race is harmless
+    		cache = new DayStart[DAY_CACHE_SIZE];
+    		mDayStarts = cache;
+    	}
+    	int index = (int) epochDay & DAY_CACHE_MASK;
+    	DayStart dayStart = cache[index];
+    	if (dayStart == null || dayStart.mEpochDay != epochDay) {
+    		dayStart = new DayStart(epochDay, computeStartOfDay(epochDay * DateTimeConstants.MILLIS_PER_DAY));
+    		cache[index] = dayStart;
+    	}
+    	return dayStart.mMillis;
+    }
+    
+    private long computeStartOfDay(long midnightLocal) {
+    	if (getLocalTransitionType(midnightLocal) == LOCAL_GAP) {
+    		// the gap starts before midnight, so the day starts with the
+    		// transition that ends it
+    		long beforeGap = convertLocalToUTC(midnightLocal, RESOLVE_LATER_OFFSET);
+    		long transition = nextTransition(beforeGap);
+    		if (transition > beforeGap) {
+    			return transition;
+    		}
+    		return convertLocalToUTC(midnightLocal, RESOLVE_SHIFT_FORWARD);
+    	}
+    	return convertLocalToUTC(midnightLocal, RESOLVE_EARLIER_OFFSET);
     }
     
     public String getName(long instant) {
@@ -158,12 +501,11 @@ public final class DateTimeZone {
     }
     
     public boolean isLocalDateTimeGap(LocalDateTime localDateTime) {
-    	try {
-            localDateTime.toDateTime(this);
-            return false;
-        } catch (IllegalArgumentException ex) {
-            return true;
-        }
+    	return getLocalTransitionType(localDateTime.getLocalMillis()) == LOCAL_GAP;
+	}
+    
+    public boolean isLocalDateTimeOverlap(LocalDateTime localDateTime) {
+    	return getLocalTransitionType(localDateTime.getLocalMillis()) == LOCAL_OVERLAP;
 	}
     
     public String toString() {
@@ -180,7 +522,7 @@ public final class DateTimeZone {
      * @return the time zone string
      */
     private static String printOffset(int offset) {
-        StringBuffer buf = new StringBuffer();
+        StringBuilder buf = new StringBuilder(13);
         if (offset >= 0) {
             buf.append('+');
         } else {
@@ -227,9 +569,22 @@ public final class DateTimeZone {
         	DateTimeZone other = (DateTimeZone) obj;
             return
                 getID().equals(other.getID()) &&
-                mTimeZone.getRawOffset() == other.getTimeZone().getRawOffset();
+                mTimeZone.getRawOffset() == other.mTimeZone.getRawOffset();
         }
         return false;
 	}
 
+	/**
+	 * The start of one local day, immutable so the cache needs no locking.
+	 */
+	private static final class DayStart {
+		final long mEpochDay;
+		final long mMillis;
+		
+		DayStart(long epochDay, long millis) {
+			mEpochDay = epochDay;
+			mMillis = millis;
+		}
+	}
+
 }
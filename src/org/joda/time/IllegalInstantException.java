@@ -1,5 +1,9 @@
 package org.joda.time;
 
+import java.util.Date;
+
+import org.joda.time.internal.utils.ISO8601Utils;
+
 public class IllegalInstantException extends IllegalArgumentException {
     
     /** Serialization lock. */
@@ -14,5 +18,23 @@ public class IllegalInstantException extends IllegalArgumentException {
     public IllegalInstantException(String message) {
         super(message);
     }
+
+    /**
+     * Constructor.
+     * 
+     * @param instantLocal  the local instant
+     * @param zoneId  the time zone ID
+     */
+    public IllegalInstantException(long instantLocal, String zoneId) {
+        super(createMessage(instantLocal, zoneId));
+    }
+
+    private static String createMessage(long instantLocal, String zoneId) {
+        String localDateTime = ISO8601Utils.format(new Date(instantLocal), true);
+        // drop the 'Z', the local instant has no offset
+        localDateTime = localDateTime.substring(0, localDateTime.length() - 1);
+        String zone = (zoneId != null ? " (" + zoneId + ")" : "");
+        return "Illegal instant due to time zone offset transition (daylight savings time 'gap'): " + localDateTime + zone;
+    }
     
 }
@@ -1,7 +1,5 @@
 package org.joda.time;
 
-import java.util.Calendar;
-
 import org.joda.time.base.AbstractInstant;
 import org.joda.time.internal.utils.ISO8601Utils;
 
@@ -27,8 +25,6 @@ public class Instant extends AbstractInstant {
 
 	@Override
 	public String toString() {
-		Calendar c = Calendar.getInstance(DateTimeZone.UTC.getTimeZone());
-		c.setTimeInMillis(mMillis);
-		return ISO8601Utils.fromCalendar(c);
+		return ISO8601Utils.format(mMillis, 0);
 	}
 }
@@ -2,34 +2,73 @@ package org.joda.time;
 
 import java.util.Calendar;
 
+import org.joda.time.internal.utils.ChronologyUtils;
+
+/**
+ * A date without a time zone, as a count of days from 1970-01-01.
+ * <p>
+ * The single day count makes comparing, hashing and adding days integer
+ * operations, without building a Calendar. As in {@link Calendar}, the
+ * month passed to the constructor is 0-based and fields out of range roll
+ * over into the next or previous month or year.
+ */
 public class LocalDate implements Comparable<LocalDate> {
 
-	private final int mYear, mMonthOfYear, mDayOfMonth;
+	/** The date 1970-01-01, from which {@link #fromEpochDay(long)} counts. */
+	private static final LocalDate EPOCH = new LocalDate(0L);
+	
+	private final long mEpochDay;
+	
+	/**
+	 * Creates a date from an epoch day count.
+	 * 
+	 * @param epochDay  the days from 1970-01-01, negative before
+	 * @return the date
+	 */
+	public static LocalDate fromEpochDay(long epochDay) {
+		return new LocalDate(EPOCH, epochDay);
+	}
 	
 	public LocalDate(
             int year,
             int monthOfYear,
             int dayOfMonth) {
-		mYear = year;
-		mMonthOfYear = monthOfYear;
-		mDayOfMonth = dayOfMonth;
+		//the month is 0-based, as in Calendar; roll it into the year first
+		int yearOffset = (monthOfYear >= 0 ? monthOfYear / 12 : (monthOfYear - 11) / 12);
+		int month = monthOfYear - yearOffset * 12 + 1;
+		mEpochDay = ChronologyUtils.toEpochDay(year + yearOffset, month, dayOfMonth);
 	}
 	
 	public LocalDate(long millis) {
-		Calendar c = Calendar.getInstance(DateTimeZone.UTC.getTimeZone());
-		c.setTimeInMillis(millis);
-		mYear = c.get(Calendar.YEAR);
-		mMonthOfYear = c.get(Calendar.MONTH);
-		mDayOfMonth = c.get(Calendar.DAY_OF_MONTH);
+		mEpochDay = ChronologyUtils.getEpochDay(millis);
+	}
+	
+	/**
+	 * Creates the date a number of days after another, without overflow checks.
+	 */
+	private LocalDate(LocalDate date, long days) {
+		mEpochDay = date.mEpochDay + days;
+	}
+	
+	/**
+	 * Gets the days from 1970-01-01, which order the dates.
+	 * 
+	 * @return the epoch day, negative before 1970
+	 */
+	public long getEpochDay() {
+		return mEpochDay;
 	}
 	
 	public LocalDate plusDays(int days) {
-		return toDateTimeAtCurrentTime(DateTimeZone.UTC).plusDays(days).toLocalDate();
+		if (days == 0) {
+			return this;
+		}
+		return new LocalDate(this, days);
 	}
 	
 	public DateTime toDateTimeAtCurrentTime(DateTimeZone zone) {
-		Calendar calendar = Calendar.getInstance(zone.getTimeZone());
-		calendar.set(mYear, mMonthOfYear, mDayOfMonth);
+		Calendar calendar = Calendar.getInstance(zone.getSharedTimeZone());
+		setDate(calendar);
 		return new DateTime(calendar);
 	}
 	
@@ -37,22 +76,29 @@ public class LocalDate implements Comparable<LocalDate> {
 		return toDateTimeAtStartOfDay(DateTimeZone.getDefault());
 	}
 	
+	/**
+	 * Converts to the first instant of this date in a zone, see
+	 * {@link DateTimeZone#getStartOfDay(long)}.
+	 * 
+	 * @param zone  the zone, null means the default zone
+	 * @return the start of the day
+	 */
 	public DateTime toDateTimeAtStartOfDay(DateTimeZone zone) {
-		Calendar calendar = Calendar.getInstance();
-	    calendar.set(mYear, mMonthOfYear, mDayOfMonth);
-	    calendar.set(Calendar.HOUR_OF_DAY, 0);
-	    calendar.set(Calendar.MINUTE, 0);
-	    calendar.set(Calendar.SECOND, 0);
-	    calendar.set(Calendar.MILLISECOND, 0);
-	    return new DateTime(calendar);
+		zone = DateTimeUtils.getZone(zone);
+		return new DateTime(zone.getStartOfDay(mEpochDay), zone);
+	}
+	
+	private void setDate(Calendar calendar) {
+		long date = ChronologyUtils.fromEpochDay(mEpochDay);
+		calendar.set(ChronologyUtils.getPackedYear(date), ChronologyUtils.getPackedMonth(date) - 1, ChronologyUtils.getPackedDay(date));
 	}
 	
 	public boolean isBefore(LocalDate localDate) {
-		return toDateTimeAtCurrentTime(DateTimeZone.UTC).isBefore(localDate.toDateTimeAtCurrentTime(DateTimeZone.UTC));
+		return mEpochDay < localDate.mEpochDay;
 	}
 	
 	public boolean isAfter(LocalDate localDate) {
-		return toDateTimeAtCurrentTime(DateTimeZone.UTC).isAfter(localDate.toDateTimeAtCurrentTime(DateTimeZone.UTC));
+		return mEpochDay > localDate.mEpochDay;
 	}
 	
 	public boolean isEqual(LocalDate localDate) {
@@ -61,17 +107,12 @@ public class LocalDate implements Comparable<LocalDate> {
 
 	@Override
 	public int compareTo(LocalDate another) {
-		return toDateTimeAtCurrentTime(DateTimeZone.UTC).compareTo(another.toDateTimeAtCurrentTime(DateTimeZone.UTC));
+		return (mEpochDay < another.mEpochDay ? -1 : (mEpochDay == another.mEpochDay ? 0 : 1));
 	}
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + mDayOfMonth;
-		result = prime * result + mMonthOfYear;
-		result = prime * result + mYear;
-		return result;
+		return (int) (mEpochDay ^ (mEpochDay >>> 32));
 	}
 
 	@Override
@@ -83,14 +124,8 @@ public class LocalDate implements Comparable<LocalDate> {
 		if (getClass() != obj.getClass())
 			return false;
 		LocalDate other = (LocalDate) obj;
-		if (mDayOfMonth != other.mDayOfMonth)
-			return false;
-		if (mMonthOfYear != other.mMonthOfYear)
-			return false;
-		if (mYear != other.mYear)
-			return false;
-		return true;
+		return mEpochDay == other.mEpochDay;
 	}
 	
 	
-}
+}
\ No newline at end of file
@@ -1,60 +1,187 @@
 package org.joda.time;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Locale;
 
 import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.internal.utils.ChronologyUtils;
 
-public class LocalDateTime {
+/**
+ * A date and time without a time zone, packed in a single long.
+ * <p>
+ * The fields are stored from the most significant bits down: year, month,
+ * day of month and millis of the day. The packed values therefore order
+ * the same way as the date-times, so comparing, equality and hashing are
+ * single long operations. Converting to a {@link DateTime} uses the zone's
+ * transitions directly, without a Calendar.
+ * <p>
+ * Years from -134217728 to 134217727 can be stored.
+ */
+public class LocalDateTime implements Comparable<LocalDateTime> {
+
+	/** The bits below the packed date, holding the millis of the day. */
+	private static final int DATE_SHIFT = 27;
+	private static final long MILLIS_OF_DAY_MASK = (1L << DATE_SHIFT) - 1;
+	/** The year bits left above the month, day and millis of the day. */
+	private static final int MIN_PACKED_YEAR = -(1 << (63 - 9 - DATE_SHIFT));
+	private static final int MAX_PACKED_YEAR = (1 << (63 - 9 - DATE_SHIFT)) - 1;
 
 	public static LocalDateTime parse(String rawDate, DateTimeFormatter formatter) throws IllegalArgumentException {
-		SimpleDateFormat df = new SimpleDateFormat(formatter.getPattern(), Locale.getDefault());
-		try {
-			return new DateTime(df.parse(rawDate)).toLocalDateTime();
-		} catch (ParseException e) {
-			throw new IllegalArgumentException(e);
-		}
+		return formatter.parseDateTime(rawDate).toLocalDateTime();
 	}
-	
-	private final int mYear, mMonthOfYear, mDayOfMonth, mHourOfDay, mMinuteOfHour, mSecondOfMinute, mMillisOfSecond;
-	
+
+	/**
+	 * Creates a date-time from local millis, see {@link DateTimeZone#convertUTCToLocal(long)}.
+	 */
+	static LocalDateTime fromLocalMillis(long localMillis) {
+		long epochDay = ChronologyUtils.getEpochDay(localMillis);
+		long date = ChronologyUtils.fromEpochDay(epochDay);
+		checkYear(ChronologyUtils.getPackedYear(date));
+		return new LocalDateTime((date << DATE_SHIFT) | (localMillis - epochDay * DateTimeConstants.MILLIS_PER_DAY));
+	}
+
+	private final long mPacked;
+
 	public LocalDateTime(Calendar calendar) {
-		this(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH), 
+		//Calendar months are 0-based
+		this(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH),
 				calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE),
 				calendar.get(Calendar.SECOND), calendar.get(Calendar.MILLISECOND));
 	}
-	
+
 	public LocalDateTime(int year,
             int monthOfYear,
-            int dayOfMonth, 
+            int dayOfMonth,
             int hourOfDay,
 			int minuteOfHour) {
 		this(year, monthOfYear, dayOfMonth, hourOfDay, minuteOfHour, 0, 0);
 	}
-	
+
+	/**
+	 * Creates a date-time from its fields.
+	 *
+	 * @throws IllegalArgumentException if any of the fields is out of range
+	 */
 	public LocalDateTime(int year,
             int monthOfYear,
-            int dayOfMonth, 
+            int dayOfMonth,
             int hourOfDay,
 			int minuteOfHour,
 			int secondOfMinute,
 			int millisOfSecond) {
-		mYear = year;
-		mMonthOfYear = monthOfYear;
-		mDayOfMonth = dayOfMonth;
-		mHourOfDay = hourOfDay;
-		mMinuteOfHour = minuteOfHour;
-		mSecondOfMinute = secondOfMinute;
-		mMillisOfSecond = millisOfSecond;
+		checkYear(year);
+		//validates the other fields
+		ChronologyUtils.getDateTimeMillis(year, monthOfYear, dayOfMonth,
+				hourOfDay, minuteOfHour, secondOfMinute, millisOfSecond);
+		long millisOfDay = hourOfDay * (long) DateTimeConstants.MILLIS_PER_HOUR
+				+ minuteOfHour * DateTimeConstants.MILLIS_PER_MINUTE
+				+ secondOfMinute * DateTimeConstants.MILLIS_PER_SECOND
+				+ millisOfSecond;
+		mPacked = (ChronologyUtils.packDate(year, monthOfYear, dayOfMonth) << DATE_SHIFT) | millisOfDay;
+	}
+
+	private LocalDateTime(long packed) {
+		mPacked = packed;
+	}
+
+	private static void checkYear(int year) {
+		if (year < MIN_PACKED_YEAR || year > MAX_PACKED_YEAR) {
+			throw new IllegalArgumentException("Value " + year + " for year must be in the range ["
+				+ MIN_PACKED_YEAR + ',' + MAX_PACKED_YEAR + ']');
+		}
+	}
+
+	public int getYear() {
+		return ChronologyUtils.getPackedYear(mPacked >> DATE_SHIFT);
+	}
+
+	public int getMonthOfYear() {
+		return ChronologyUtils.getPackedMonth(mPacked >> DATE_SHIFT);
+	}
+
+	public int getDayOfMonth() {
+		return ChronologyUtils.getPackedDay(mPacked >> DATE_SHIFT);
+	}
+
+	public int getHourOfDay() {
+		return getMillisOfDay() / DateTimeConstants.MILLIS_PER_HOUR;
+	}
+
+	public int getMinuteOfHour() {
+		return (getMillisOfDay() / DateTimeConstants.MILLIS_PER_MINUTE) % DateTimeConstants.MINUTES_PER_HOUR;
+	}
+
+	public int getSecondOfMinute() {
+		return (getMillisOfDay() / DateTimeConstants.MILLIS_PER_SECOND) % DateTimeConstants.SECONDS_PER_MINUTE;
+	}
+
+	public int getMillisOfSecond() {
+		return getMillisOfDay() % DateTimeConstants.MILLIS_PER_SECOND;
+	}
+
+	private int getMillisOfDay() {
+		return (int) (mPacked & MILLIS_OF_DAY_MASK);
+	}
+
+	/**
+	 * Gets the local millis of this date-time, see {@link DateTimeZone#convertUTCToLocal(long)}.
+	 */
+	long getLocalMillis() {
+		long date = mPacked >> DATE_SHIFT;
+		long epochDay = ChronologyUtils.toEpochDay(ChronologyUtils.getPackedYear(date),
+				ChronologyUtils.getPackedMonth(date), ChronologyUtils.getPackedDay(date));
+		return epochDay * DateTimeConstants.MILLIS_PER_DAY + getMillisOfDay();
 	}
 
 	public LocalTime toLocalTime() {
-		return new LocalTime(mHourOfDay, mMinuteOfHour, mSecondOfMinute, mMillisOfSecond);
+		return LocalTime.fromMillisOfDay(getMillisOfDay());
 	}
 
+	/**
+	 * Converts to a date-time in a zone. A local time in an overlap resolves
+	 * to the later offset, as in Calendar.
+	 *
+	 * @param dateTimeZone  the zone, null means the default zone
+	 * @return the date-time
+	 * @throws IllegalInstantException if the local time is in a gap of the zone
+	 */
 	public DateTime toDateTime(DateTimeZone dateTimeZone) {
-		return new DateTime(mYear, mMonthOfYear, mDayOfMonth, mHourOfDay, mMinuteOfHour, mSecondOfMinute, mMillisOfSecond, dateTimeZone);
+		DateTimeZone zone = DateTimeUtils.getZone(dateTimeZone);
+		return new DateTime(zone.convertLocalToUTC(getLocalMillis(), true), zone);
+	}
+
+	/**
+	 * Converts to a date-time in a zone without throwing for a gap.
+	 *
+	 * @param dateTimeZone  the zone, null means the default zone
+	 * @param policy  how to resolve a gap or overlap, one of the RESOLVE
+	 *  constants of {@link DateTimeZone}
+	 * @return the date-time, null if the policy rejects the local time
+	 * @throws IllegalArgumentException if the policy is not one of the constants
+	 */
+	public DateTime toDateTime(DateTimeZone dateTimeZone, int policy) {
+		DateTimeZone zone = DateTimeUtils.getZone(dateTimeZone);
+		long instant = zone.convertLocalToUTC(getLocalMillis(), policy);
+		return (instant == DateTimeZone.INVALID_MILLIS ? null : new DateTime(instant, zone));
+	}
+
+	@Override
+	public int compareTo(LocalDateTime another) {
+		return (mPacked < another.mPacked ? -1 : (mPacked == another.mPacked ? 0 : 1));
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (mPacked ^ (mPacked >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		return mPacked == ((LocalDateTime) obj).mPacked;
 	}
 }
@@ -1,32 +1,71 @@
 package org.joda.time;
 
 import java.util.Calendar;
+import java.util.TimeZone;
 
+import org.joda.time.internal.utils.ChronologyUtils;
 
-public final class LocalTime {
+/**
+ * A time of day without a time zone, as the milliseconds from midnight.
+ * <p>
+ * The single int makes comparing and hashing integer operations, and adding
+ * hours or minutes wraps around midnight without building a Calendar. Whole
+ * minutes are interned, so {@link #fromMillisOfDay(long)} and the arithmetic
+ * methods return shared instances for them.
+ */
+public final class LocalTime implements Comparable<LocalTime> {
 
+	/** The interned whole minutes of the day. */
+	private static final LocalTime[] MINUTES = new LocalTime[DateTimeConstants.MINUTES_PER_DAY];
+	
+	static {
+		for (int i = 0; i < MINUTES.length; i++) {
+			MINUTES[i] = new LocalTime(i * DateTimeConstants.MILLIS_PER_MINUTE);
+		}
+	}
+	
 	/** Constant for midnight. */
-    public static final LocalTime MIDNIGHT = new LocalTime(0, 0, 0, 0);
+    public static final LocalTime MIDNIGHT = MINUTES[0];
 	
 	public static LocalTime now() {
 		return new LocalTime();
 	}
 	
-	private final int mHourOfDay, mMinuteOfHour, mSecondOfMinute, mMillisOfSecond;
+	/**
+	 * Gets the time at a number of milliseconds from midnight, wrapping
+	 * around midnight in either direction.
+	 * 
+	 * @param millisOfDay  the milliseconds from midnight, may be out of range
+	 * @return the time, interned if it is a whole minute
+	 */
+	public static LocalTime fromMillisOfDay(long millisOfDay) {
+		int millis = (int) (millisOfDay % DateTimeConstants.MILLIS_PER_DAY);
+		if (millis < 0) {
+			millis += DateTimeConstants.MILLIS_PER_DAY;
+		}
+		if (millis % DateTimeConstants.MILLIS_PER_MINUTE == 0) {
+			return MINUTES[millis / DateTimeConstants.MILLIS_PER_MINUTE];
+		}
+		return new LocalTime(millis);
+	}
+	
+	private final int mMillisOfDay;
 	
 	public LocalTime(LocalTime localTime) {
-		this(localTime.getHourOfDay(), localTime.getMinuteOfHour(), localTime.getSecondOfMinute(), localTime.getMillisOfSecond());
+		mMillisOfDay = localTime.mMillisOfDay;
 	}
 	
+	/**
+	 * Creates a time from its fields.
+	 *
+	 * @throws IllegalArgumentException if any of the fields is out of range
+	 */
 	public LocalTime(
 			int hourOfDay,
 			int minuteOfHour,
 			int secondOfMinute,
 			int millisOfSecond) {
-		mHourOfDay = hourOfDay;
-		mMinuteOfHour = minuteOfHour;
-		mSecondOfMinute = secondOfMinute;
-		mMillisOfSecond = millisOfSecond;
+		mMillisOfDay = ChronologyUtils.getMillisOfDay(hourOfDay, minuteOfHour, secondOfMinute, millisOfSecond);
 	}
 
 	public LocalTime(Calendar calendar) {
@@ -51,61 +90,82 @@ public final class LocalTime {
 	}
 	
 	public LocalTime(long instant) {
-		Calendar calendar = Calendar.getInstance();
-		calendar.setTimeInMillis(instant);
-		
-		mHourOfDay = calendar.get(Calendar.HOUR_OF_DAY);
-		mMinuteOfHour = calendar.get(Calendar.MINUTE);
-		mSecondOfMinute = calendar.get(Calendar.SECOND);
-		mMillisOfSecond = calendar.get(Calendar.MILLISECOND);
+		//the time in the default JDK zone, as Calendar.getInstance() gives
+		mMillisOfDay = ChronologyUtils.getMillisOfDay(instant + TimeZone.getDefault().getOffset(instant));
 	}
 	
 	public LocalTime(DateTime dateTime) {
-		this(dateTime.toCalendar());
+		this(dateTime.toLocalTime());
+	}
+	
+	/**
+	 * Creates a time from its millis of the day, for {@link #fromMillisOfDay(long)}.
+	 * Being private, it is never chosen over {@link #LocalTime(long)} outside
+	 * this class.
+	 */
+	private LocalTime(int millisOfDay) {
+		mMillisOfDay = millisOfDay;
+	}
+	
+	/**
+	 * Gets the milliseconds from midnight, which order the times.
+	 * 
+	 * @return the millis of the day, from 0 to 86399999
+	 */
+	public int getMillisOfDay() {
+		return mMillisOfDay;
 	}
 	
 	public int getHourOfDay() {
-		return mHourOfDay;
+		return mMillisOfDay / DateTimeConstants.MILLIS_PER_HOUR;
 	}
 	
 	public int getMinuteOfHour() {
-		return mMinuteOfHour;
+		return (mMillisOfDay / DateTimeConstants.MILLIS_PER_MINUTE) % DateTimeConstants.MINUTES_PER_HOUR;
 	}
 	
 	public int getSecondOfMinute() {
-		return mSecondOfMinute;
+		return (mMillisOfDay / DateTimeConstants.MILLIS_PER_SECOND) % DateTimeConstants.SECONDS_PER_MINUTE;
 	}
 	
 	public int getMillisOfSecond() {
-		return mMillisOfSecond;
+		return mMillisOfDay % DateTimeConstants.MILLIS_PER_SECOND;
 	}
 	
 	public boolean isBefore(LocalTime localTime) {
-		return toDateTimeToday(DateTimeZone.UTC).isBefore(localTime.toDateTimeToday(DateTimeZone.UTC));
+		return mMillisOfDay < localTime.mMillisOfDay;
 	}
 	
 	public boolean isAfter(LocalTime localTime) {
-		return toDateTimeToday(DateTimeZone.UTC).isAfter(localTime.toDateTimeToday(DateTimeZone.UTC));
+		return mMillisOfDay > localTime.mMillisOfDay;
 	}
 	
 	public LocalTime plusHours(int hours) {
 		if (hours == 0) {
 			return this;
 		}
-		
-		Calendar cal = Calendar.getInstance(DateTimeZone.UTC.getTimeZone());
-		DateTime dateTime = toDateTime(cal);
-		return new LocalTime(dateTime.plusHours(hours));
+		return fromMillisOfDay(mMillisOfDay + (hours % DateTimeConstants.HOURS_PER_DAY) * (long) DateTimeConstants.MILLIS_PER_HOUR);
 	}
 	
 	public LocalTime plusMinutes(int minutes) {
 		if (minutes == 0) {
 			return this;
 		}
-		
-		Calendar cal = Calendar.getInstance(DateTimeZone.UTC.getTimeZone());
-		DateTime dateTime = toDateTime(cal);
-		return new LocalTime(dateTime.plusMinutes(minutes));
+		return fromMillisOfDay(mMillisOfDay + (minutes % DateTimeConstants.MINUTES_PER_DAY) * (long) DateTimeConstants.MILLIS_PER_MINUTE);
+	}
+	
+	public LocalTime minusHours(int hours) {
+		if (hours == 0) {
+			return this;
+		}
+		return fromMillisOfDay(mMillisOfDay - (hours % DateTimeConstants.HOURS_PER_DAY) * (long) DateTimeConstants.MILLIS_PER_HOUR);
+	}
+	
+	public LocalTime minusMinutes(int minutes) {
+		if (minutes == 0) {
+			return this;
+		}
+		return fromMillisOfDay(mMillisOfDay - (minutes % DateTimeConstants.MINUTES_PER_DAY) * (long) DateTimeConstants.MILLIS_PER_MINUTE);
 	}
 	
 	public DateTime toDateTimeToday() {
@@ -113,7 +173,7 @@ public final class LocalTime {
 	}
 	
 	public DateTime toDateTimeToday(DateTimeZone zone) {
-        return toDateTime(Calendar.getInstance(zone.getTimeZone()));
+        return toDateTime(Calendar.getInstance(zone.getSharedTimeZone()));
 	}
 	
 	public DateTime toDateTime(DateTime dateTime) {
@@ -127,10 +187,10 @@ public final class LocalTime {
 	}
 	
 	public DateTime toDateTime(Calendar calendar) {
-		calendar.set(Calendar.HOUR_OF_DAY, mHourOfDay);
-        calendar.set(Calendar.MINUTE, mMinuteOfHour);
-        calendar.set(Calendar.SECOND, mSecondOfMinute);
-        calendar.set(Calendar.MILLISECOND, mMillisOfSecond);
+		calendar.set(Calendar.HOUR_OF_DAY, getHourOfDay());
+        calendar.set(Calendar.MINUTE, getMinuteOfHour());
+        calendar.set(Calendar.SECOND, getSecondOfMinute());
+        calendar.set(Calendar.MILLISECOND, getMillisOfSecond());
         
         return new DateTime(calendar);
 	}
@@ -139,15 +199,14 @@ public final class LocalTime {
 		return equals(localTime);
 	}
 
+	@Override
+	public int compareTo(LocalTime another) {
+		return (mMillisOfDay < another.mMillisOfDay ? -1 : (mMillisOfDay == another.mMillisOfDay ? 0 : 1));
+	}
+
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + mHourOfDay;
-		result = prime * result + mMillisOfSecond;
-		result = prime * result + mMinuteOfHour;
-		result = prime * result + mSecondOfMinute;
-		return result;
+		return mMillisOfDay;
 	}
 
 	@Override
@@ -159,17 +218,9 @@ public final class LocalTime {
 		if (getClass() != obj.getClass())
 			return false;
 		LocalTime other = (LocalTime) obj;
-		if (mHourOfDay != other.mHourOfDay)
-			return false;
-		if (mMillisOfSecond != other.mMillisOfSecond)
-			return false;
-		if (mMinuteOfHour != other.mMinuteOfHour)
-			return false;
-		if (mSecondOfMinute != other.mSecondOfMinute)
-			return false;
-		return true;
+		return mMillisOfDay == other.mMillisOfDay;
 	}
 	
 	
 	
-}
+}
\ No newline at end of file
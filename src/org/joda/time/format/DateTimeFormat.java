@@ -1,12 +1,31 @@
 package org.joda.time.format;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 
 public class DateTimeFormat {
-	
+
+    /** Maximum size of the pattern cache. */
+    private static final int PATTERN_CACHE_SIZE = 500;
+
+    /** Cache of compiled formatters, keyed by pattern. */
+    private static final ConcurrentMap<String, DateTimeFormatter> cPatternCache =
+            new ConcurrentHashMap<String, DateTimeFormatter>();
+
+    /**
+     * Factory to create a formatter from a pattern string. The pattern is
+     * compiled once and the formatter cached, so repeated calls for the
+     * same pattern return the same, thread-safe instance.
+     *
+     * @param pattern  pattern specification
+     * @return the formatter
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
     public static DateTimeFormatter forPattern(String pattern) {
 		return createFormatterForPattern(pattern);
 	}
-	
+
 	/**
      * Select a format from a custom pattern.
      *
@@ -15,6 +34,20 @@ public class DateTimeFormat {
      * @see #appendPatternTo
      */
     private static DateTimeFormatter createFormatterForPattern(String pattern) {
-        return new DateTimeFormatter(pattern);
+        if (pattern == null) {
+            throw new IllegalArgumentException("Invalid pattern specification");
+        }
+        DateTimeFormatter formatter = cPatternCache.get(pattern);
+        if (formatter == null) {
+            formatter = new DateTimeFormatter(pattern);
+            if (cPatternCache.size() < PATTERN_CACHE_SIZE) {
+                // the size check is not atomic, so the limit may be exceeded slightly
+                DateTimeFormatter oldFormatter = cPatternCache.putIfAbsent(pattern, formatter);
+                if (oldFormatter != null) {
+                    formatter = oldFormatter;
+                }
+            }
+        }
+        return formatter;
     }
 }
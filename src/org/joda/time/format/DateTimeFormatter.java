@@ -1,41 +1,363 @@
 package org.joda.time.format;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.joda.time.DateTimeZone;
+import org.joda.time.ReadableInstant;
 import org.joda.time.internal.utils.ISO8601Utils;
+import org.joda.time.internal.utils.ParseCache;
+import org.joda.time.internal.utils.ParsedInstant;
 
 
+/**
+ * Prints and parses instants with a {@link java.text.SimpleDateFormat}
+ * pattern, or in ISO8601 format when the pattern is empty.
+ * <p>
+ * The pattern is compiled when the formatter is created, and the formatter
+ * is immutable and thread-safe. Use {@link DateTimeFormat#forPattern(String)}
+ * to share formatters for the same pattern.
+ */
 public class DateTimeFormatter {
 
 	private final String mPattern;
-	
+	/** The compiled pattern, null for ISO8601. */
+	private final PatternFormatter mFormatter;
+	/** The text printed for recent seconds, null if not caching. */
+	private final SecondCache mSecondCache;
+	/** The results of recent ISO8601 parses, null if not caching. */
+	private final ParseCache mParseCache;
+
+	/** The buffer used to print patterns as bytes, reused by each thread. */
+	private static final ThreadLocal<StringBuilder> cPrintBuffer = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(64);
+		}
+	};
+
+	/**
+	 * Creates a formatter for a pattern.
+	 *
+	 * @param pattern  the SimpleDateFormat pattern, empty for ISO8601
+	 * @throws IllegalArgumentException if the pattern is invalid
+	 */
 	public DateTimeFormatter(String pattern) {
-		mPattern = pattern;
+		this(pattern, ("".equals(pattern) ? null : PatternFormatter.compile(pattern)), null, null);
 	}
 
 	public DateTimeFormatter() {
-		mPattern = "";
+		this("");
+	}
+
+	private DateTimeFormatter(String pattern, PatternFormatter formatter, SecondCache secondCache, ParseCache parseCache) {
+		mPattern = pattern;
+		mFormatter = formatter;
+		mSecondCache = secondCache;
+		mParseCache = parseCache;
 	}
 
 	public String getPattern() {
 		return mPattern;
 	}
 
+	/**
+	 * Returns a copy of this formatter that caches the text printed for the
+	 * latest second in each time zone. Printing another instant in the same
+	 * second then only appends the milliseconds, which suits printing the
+	 * current time at a high rate, as loggers do.
+	 * <p>
+	 * The cache belongs to the returned formatter, so keep and reuse it.
+	 * The printed text is the same as without the cache.
+	 *
+	 * @return a caching formatter, this if already caching
+	 */
+	public DateTimeFormatter withSecondCache() {
+		if (mSecondCache != null) {
+			return this;
+		}
+		return new DateTimeFormatter(mPattern, mFormatter, new SecondCache(mFormatter), mParseCache);
+	}
+
+	/**
+	 * Returns a copy of this ISO8601 formatter that caches recent parse
+	 * results, which suits input that repeats the same text many times.
+	 * <p>
+	 * Only ISO8601 parsing is cached. A pattern's result also depends on the
+	 * default locale and on the current time, which sets the century of
+	 * two-digit years.
+	 *
+	 * @param size  the number of entries, rounded up to a power of two
+	 * @return a formatter with a new parse cache
+	 * @throws IllegalArgumentException if the size is invalid
+	 * @throws IllegalStateException if this is a pattern formatter
+	 * @see #getParseCache()
+	 */
+	public DateTimeFormatter withParseCache(int size) {
+		if (mFormatter != null) {
+			throw new IllegalStateException("Only ISO8601 parsing can be cached");
+		}
+		return new DateTimeFormatter(mPattern, mFormatter, mSecondCache, new ParseCache(size));
+	}
+
+	/**
+	 * Gets the parse cache, which has the hit and miss counts.
+	 *
+	 * @return the parse cache, null if not caching
+	 */
+	public ParseCache getParseCache() {
+		return mParseCache;
+	}
+
+	/**
+	 * Parses a date-time. An ISO8601 date-time keeps the offset it was
+	 * parsed with. A pattern date-time is in the default time zone.
+	 *
+	 * @param str  the text to parse
+	 * @return the parsed date-time
+	 * @throws IllegalArgumentException if the text cannot be parsed
+	 */
 	public DateTime parseDateTime(String str) throws IllegalArgumentException {
 		try {
-			if ("".equals(mPattern)) {
-				Calendar c = ISO8601Utils.parse(str);
-				return new DateTime(c);
+			if (mFormatter == null) {
+				ParsedInstant parsed;
+				if (mParseCache != null) {
+					parsed = new ParsedInstant();
+					mParseCache.parseInto(parsed, str);
+				} else {
+					parsed = ISO8601Utils.parseInstant(str);
+				}
+				return new DateTime(parsed.getMillis(), parsed.getZone());
 			} else {
-				Date d = new SimpleDateFormat(mPattern).parse(str);
-				return new DateTime(d);
+				return new DateTime(mFormatter.parseMillis(str));
 			}
 		} catch (ParseException e) {
 			throw new IllegalArgumentException(e);
 		}
 	}
+
+	/**
+	 * Parses a date-time, returning null rather than throwing if the text
+	 * is invalid. This is much cheaper than catching the exception from
+	 * {@link #parseDateTime(String)} when invalid text is common.
+	 *
+	 * @param str  the text to parse, null is invalid
+	 * @return the parsed date-time, null if the text cannot be parsed
+	 */
+	public DateTime tryParseDateTime(String str) {
+		if (str == null) {
+			return null;
+		}
+		if (mFormatter == null) {
+			ParsedInstant parsed = new ParsedInstant();
+			boolean valid = (mParseCache != null ? mParseCache.tryParse(parsed, str) : ISO8601Utils.tryParse(parsed, str));
+			if (!valid) {
+				return null;
+			}
+			return new DateTime(parsed.getMillis(), parsed.getZone());
+		}
+		long millis = mFormatter.tryParseMillis(str);
+		return (millis == PatternFormatter.INVALID_MILLIS ? null : new DateTime(millis));
+	}
+
+	/**
+	 * Prints an instant in its own time zone.
+	 *
+	 * @param instant  the instant to print, null means now
+	 * @return the printed text
+	 */
+	public String print(ReadableInstant instant) {
+		long millis = DateTimeUtils.getInstantMillis(instant);
+		DateTimeZone zone = (instant == null ? DateTimeZone.getDefault() : instant.getZone());
+		return print(millis, zone);
+	}
+
+	/**
+	 * Prints an instant in the default time zone.
+	 *
+	 * @param instant  milliseconds from 1970-01-01T00:00:00Z
+	 * @return the printed text
+	 */
+	public String print(long instant) {
+		return print(instant, DateTimeZone.getDefault());
+	}
+
+	/**
+	 * Prints an instant in its own time zone into a byte array, as UTF-8.
+	 * ISO8601 and numeric patterns print only ASCII, and ISO8601 is written
+	 * without creating a String.
+	 *
+	 * @param buf  the array to write to
+	 * @param position  the index to start writing at
+	 * @param instant  the instant to print, null means now
+	 * @return the number of bytes written
+	 * @throws IndexOutOfBoundsException if the array is too small, in which
+	 *  case nothing is written
+	 */
+	public int printTo(byte[] buf, int position, ReadableInstant instant) {
+		long millis = DateTimeUtils.getInstantMillis(instant);
+		DateTimeZone zone = (instant == null ? DateTimeZone.getDefault() : instant.getZone());
+		return printTo(buf, position, millis, zone);
+	}
+
+	/**
+	 * Prints an instant in the default time zone into a byte array, as UTF-8.
+	 *
+	 * @param buf  the array to write to
+	 * @param position  the index to start writing at
+	 * @param instant  milliseconds from 1970-01-01T00:00:00Z
+	 * @return the number of bytes written
+	 * @throws IndexOutOfBoundsException if the array is too small, in which
+	 *  case nothing is written
+	 * @see #printTo(byte[], int, ReadableInstant)
+	 */
+	public int printTo(byte[] buf, int position, long instant) {
+		return printTo(buf, position, instant, DateTimeZone.getDefault());
+	}
+
+	/**
+	 * Prints an instant in its own time zone into a buffer, as UTF-8, from
+	 * the buffer's position. The position is advanced past the bytes written.
+	 *
+	 * @param buf  the buffer to write to
+	 * @param instant  the instant to print, null means now
+	 * @return the number of bytes written
+	 * @throws java.nio.BufferOverflowException if the buffer has too little
+	 *  room, in which case nothing is written
+	 * @see #printTo(byte[], int, ReadableInstant)
+	 */
+	public int printTo(ByteBuffer buf, ReadableInstant instant) {
+		long millis = DateTimeUtils.getInstantMillis(instant);
+		DateTimeZone zone = (instant == null ? DateTimeZone.getDefault() : instant.getZone());
+		return printTo(buf, millis, zone);
+	}
+
+	/**
+	 * Prints an instant in the default time zone into a buffer, as UTF-8,
+	 * from the buffer's position. The position is advanced past the bytes
+	 * written.
+	 *
+	 * @param buf  the buffer to write to
+	 * @param instant  milliseconds from 1970-01-01T00:00:00Z
+	 * @return the number of bytes written
+	 * @throws java.nio.BufferOverflowException if the buffer has too little
+	 *  room, in which case nothing is written
+	 * @see #printTo(byte[], int, ReadableInstant)
+	 */
+	public int printTo(ByteBuffer buf, long instant) {
+		return printTo(buf, instant, DateTimeZone.getDefault());
+	}
+
+	private String print(long instant, DateTimeZone zone) {
+		if (mSecondCache != null) {
+			String text = mSecondCache.print(instant, zone);
+			if (text != null) {
+				return text;
+			}
+		}
+		if (mFormatter == null) {
+			return ISO8601Utils.format(instant, zone.getOffset(instant));
+		}
+		StringBuilder buf = new StringBuilder(mPattern.length() + 8);
+		mFormatter.printTo(buf, instant, zone);
+		return buf.toString();
+	}
+
+	private int printTo(byte[] buf, int position, long instant, DateTimeZone zone) {
+		if (mFormatter == null) {
+			return ISO8601Utils.formatTo(buf, position, instant, zone.getOffset(instant));
+		}
+		StringBuilder text = printPattern(instant, zone);
+		int length = utf8Length(text);
+		if (position < 0 || position > buf.length - length) {
+			throw new IndexOutOfBoundsException("Need " + length + " bytes at index " + position + " of " + buf.length);
+		}
+		return encodeUtf8(text, buf, position) - position;
+	}
+
+	private int printTo(ByteBuffer buf, long instant, DateTimeZone zone) {
+		if (mFormatter == null) {
+			return ISO8601Utils.formatTo(buf, instant, zone.getOffset(instant));
+		}
+		StringBuilder text = printPattern(instant, zone);
+		int length = utf8Length(text);
+		if (buf.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+		if (buf.hasArray()) {
+			encodeUtf8(text, buf.array(), buf.arrayOffset() + buf.position());
+			buf.position(buf.position() + length);
+		} else {
+			byte[] bytes = new byte[length];
+			encodeUtf8(text, bytes, 0);
+			buf.put(bytes);
+		}
+		return length;
+	}
+
+	/**
+	 * Prints a pattern into a buffer reused by the thread.
+	 */
+	private StringBuilder printPattern(long instant, DateTimeZone zone) {
+		StringBuilder text = cPrintBuffer.get();
+		text.setLength(0);
+		if (mSecondCache == null || !mSecondCache.printTo(text, instant, zone)) {
+			mFormatter.printTo(text, instant, zone);
+		}
+		return text;
+	}
+
+	private static int utf8Length(CharSequence text) {
+		int length = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				length += 1;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (isSurrogatePair(text, i)) {
+				length += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				length += 1;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	private static boolean isSurrogatePair(CharSequence text, int index) {
+		return Character.isHighSurrogate(text.charAt(index)) && index + 1 < text.length()
+				&& Character.isLowSurrogate(text.charAt(index + 1));
+	}
+
+	private static int encodeUtf8(CharSequence text, byte[] buf, int pos) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				buf[pos++] = (byte) c;
+			} else if (c < 0x800) {
+				buf[pos++] = (byte) (0xC0 | (c >> 6));
+				buf[pos++] = (byte) (0x80 | (c & 0x3F));
+			} else if (isSurrogatePair(text, i)) {
+				int cp = Character.toCodePoint(c, text.charAt(++i));
+				buf[pos++] = (byte) (0xF0 | (cp >> 18));
+				buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+				buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+				buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				// an unpaired surrogate is replaced, as String.getBytes does
+				buf[pos++] = '?';
+			} else {
+				buf[pos++] = (byte) (0xE0 | (c >> 12));
+				buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buf[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		return pos;
+	}
 }
@@ -1,9 +1,27 @@
 package org.joda.time.format;
 
+import java.io.IOException;
+
 public class FormatUtils {
 
-	private static final double LOG_10 = Math.log(10);
-	
+    /** The tens digit of each value from 0 to 99. */
+    private static final char[] DIGIT_TENS = new char[100];
+    /** The ones digit of each value from 0 to 99. */
+    private static final char[] DIGIT_ONES = new char[100];
+    /** The powers of ten that fit in an int. */
+    private static final int[] POWERS_OF_TEN = {
+        1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000
+    };
+    /** The digits of Integer.MIN_VALUE, which has no positive int. */
+    private static final String MIN_VALUE_DIGITS = "2147483648";
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
 	/**
      * Restricted constructor.
      */
@@ -21,47 +39,141 @@ public class FormatUtils {
      * @param size minumum amount of digits to append
      */
     public static void appendPaddedInteger(StringBuffer buf, int value, int size) {
+        try {
+            appendPaddedInteger((Appendable) buf, value, size);
+        } catch (IOException ex) {
+            // StringBuffer does not throw IOException
+        }
+    }
+
+    /**
+     * Converts an integer to a string, prepended with a variable amount of '0'
+     * pad characters, and appends it to the given builder.
+     *
+     * <p>This method is optimized for the two and three digit fields of a
+     * date, which are appended straight from a lookup table.
+     *
+     * @param buf receives integer converted to a string
+     * @param value value to convert to a string
+     * @param size minumum amount of digits to append
+     */
+    public static void appendPaddedInteger(StringBuilder buf, int value, int size) {
+        if (value >= 0 && value < 100 && size == 2) {
+            buf.append(DIGIT_TENS[value]).append(DIGIT_ONES[value]);
+        } else if (value >= 0 && value < 1000 && size == 3) {
+            int ones = value % 100;
+            buf.append((char) ('0' + value / 100)).append(DIGIT_TENS[ones]).append(DIGIT_ONES[ones]);
+        } else {
+            try {
+                appendPaddedInteger((Appendable) buf, value, size);
+            } catch (IOException ex) {
+                // StringBuilder does not throw IOException
+            }
+        }
+    }
+
+    /**
+     * Converts an integer to a string, prepended with a variable amount of '0'
+     * pad characters, and appends it to the given appendable.
+     *
+     * <p>The digits are appended two at a time from a lookup table, and no
+     * objects are created.
+     *
+     * @param appendable receives integer converted to a string
+     * @param value value to convert to a string
+     * @param size minumum amount of digits to append
+     * @throws IOException if the appendable throws it
+     */
+    public static void appendPaddedInteger(Appendable appendable, int value, int size) throws IOException {
         if (value < 0) {
-            buf.append('-');
-            if (value != Integer.MIN_VALUE) {
-                value = -value;
-            } else {
-                for (; size > 10; size--) {
-                    buf.append('0');
+            appendable.append('-');
+            if (value == Integer.MIN_VALUE) {
+                for (; size > MIN_VALUE_DIGITS.length(); size--) {
+                    appendable.append('0');
                 }
-                buf.append("" + -(long)Integer.MIN_VALUE);
+                appendable.append(MIN_VALUE_DIGITS);
                 return;
             }
+            value = -value;
         }
-        if (value < 10) {
-            for (; size > 1; size--) {
-                buf.append('0');
-            }
-            buf.append((char)(value + '0'));
-        } else if (value < 100) {
-            for (; size > 2; size--) {
-                buf.append('0');
+        int digits = digitCount(value);
+        for (; size > digits; size--) {
+            appendable.append('0');
+        }
+        if ((digits & 1) != 0) {
+            int power = POWERS_OF_TEN[--digits];
+            int digit = value / power;
+            appendable.append((char) ('0' + digit));
+            value -= digit * power;
+        }
+        while (digits > 0) {
+            digits -= 2;
+            int power = POWERS_OF_TEN[digits];
+            int pair = value / power;
+            appendable.append(DIGIT_TENS[pair]).append(DIGIT_ONES[pair]);
+            value -= pair * power;
+        }
+    }
+
+    /**
+     * Converts an integer to a string, prepended with a variable amount of '0'
+     * pad characters, and writes it into the given array. No objects are
+     * created.
+     *
+     * @param buf receives integer converted to a string
+     * @param position the index to start writing at
+     * @param value value to convert to a string
+     * @param size minumum amount of digits to write
+     * @return the index after the last char written
+     * @throws IndexOutOfBoundsException if the array is too small
+     */
+    public static int writePaddedInteger(char[] buf, int position, int value, int size) {
+        if (value >= 0 && value < 100 && size == 2) {
+            buf[position] = DIGIT_TENS[value];
+            buf[position + 1] = DIGIT_ONES[value];
+            return position + 2;
+        }
+        if (value < 0) {
+            buf[position++] = '-';
+            if (value == Integer.MIN_VALUE) {
+                for (; size > MIN_VALUE_DIGITS.length(); size--) {
+                    buf[position++] = '0';
+                }
+                MIN_VALUE_DIGITS.getChars(0, MIN_VALUE_DIGITS.length(), buf, position);
+                return position + MIN_VALUE_DIGITS.length();
             }
-            // Calculate value div/mod by 10 without using two expensive
-            // division operations. (2 ^ 27) / 10 = 13421772. Add one to
-            // value to correct rounding error.
-            int d = ((value + 1) * 13421772) >> 27;
-            buf.append((char) (d + '0'));
-            // Append remainder by calculating (value - d * 10).
-            buf.append((char) (value - (d << 3) - (d << 1) + '0'));
+            value = -value;
+        }
+        int digits = digitCount(value);
+        for (; size > digits; size--) {
+            buf[position++] = '0';
+        }
+        int end = position + digits;
+        int index = end;
+        while (value >= 100) {
+            int quotient = value / 100;
+            int pair = value - quotient * 100;
+            buf[--index] = DIGIT_ONES[pair];
+            buf[--index] = DIGIT_TENS[pair];
+            value = quotient;
+        }
+        if (value >= 10) {
+            buf[--index] = DIGIT_ONES[value];
+            buf[--index] = DIGIT_TENS[value];
         } else {
-            int digits;
-            if (value < 1000) {
-                digits = 3;
-            } else if (value < 10000) {
-                digits = 4;
-            } else {
-                digits = (int)(Math.log(value) / LOG_10) + 1;
-            }
-            for (; size > digits; size--) {
-                buf.append('0');
-            }
-            buf.append(Integer.toString(value));
+            buf[--index] = (char) ('0' + value);
+        }
+        return end;
+    }
+
+    /**
+     * Counts the decimal digits of a value that is not negative.
+     */
+    private static int digitCount(int value) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
         }
+        return digits;
     }
 }
@@ -0,0 +1,858 @@
+package org.joda.time.format;
+
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeUtils;
+import org.joda.time.DateTimeZone;
+import org.joda.time.internal.utils.ChronologyUtils;
+
+/**
+ * A {@link SimpleDateFormat} pattern compiled into an immutable list of
+ * printer/parser elements, safe to share between threads.
+ * <p>
+ * The elements cover the common pattern letters: <code>yMdHkKhmsSEaZzX</code>.
+ * They give the same results as <code>SimpleDateFormat</code> in its default
+ * lenient mode, for the default locale and time zone, but use the arithmetic
+ * of {@link ChronologyUtils} rather than a <code>Calendar</code>.
+ * <p>
+ * Whenever the compiled form cannot be sure of matching
+ * <code>SimpleDateFormat</code> exactly, it falls back to a fresh
+ * <code>SimpleDateFormat</code> for that call. This applies to patterns with
+ * other letters, to dates before the Gregorian calendar was widely used, to
+ * locales without ASCII digits or a Gregorian calendar, and to input the
+ * compiled parser rejects, such as zone names or negative numbers.
+ * Failures are therefore always reported by <code>SimpleDateFormat</code>.
+ *
+ * @see DateTimeFormat#forPattern(String)
+ */
+final class PatternFormatter {
+
+    /** The letters SimpleDateFormat accepts. */
+    private static final String PATTERN_LETTERS = "GyMdkHmsSEDFwWahKzZYuXL";
+    /** The letters that compile to elements. */
+    private static final String COMPILED_LETTERS = "yMdHkKhmsSEaZzX";
+
+    /** The earliest local date handled without SimpleDateFormat, 1583-01-01. */
+    private static final long MIN_LOCAL_MILLIS =
+            ChronologyUtils.toEpochDay(1583, 1, 1) * DateTimeConstants.MILLIS_PER_DAY;
+    /** The latest year handled without SimpleDateFormat. */
+    private static final int MAX_YEAR = 200000;
+
+    /** Returned by {@link #tryParseMillis(String)} for text that cannot be parsed. */
+    static final long INVALID_MILLIS = Long.MIN_VALUE;
+
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY_OF_MONTH = 2;
+    private static final int HOUR_OF_DAY = 3;
+    private static final int HOUR_OF_DAY1 = 4;
+    private static final int HOUR = 5;
+    private static final int HOUR1 = 6;
+    private static final int MINUTE = 7;
+    private static final int SECOND = 8;
+    private static final int MILLISECOND = 9;
+    private static final int DAY_OF_WEEK = 10;
+    private static final int AM_PM = 11;
+
+    /** The locale data of the last locale used. */
+    private static volatile Symbols cSymbols;
+
+    /**
+     * Compiles a pattern.
+     *
+     * @param pattern  the SimpleDateFormat pattern
+     * @return the compiled pattern
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    static PatternFormatter compile(String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("Invalid pattern specification");
+        }
+        List<Element> elements = new ArrayList<Element>();
+        boolean compiled = true;
+        boolean hasDayOfMonth = false;
+        boolean hasDayOfWeek = false;
+        boolean hasZoneName = false;
+        StringBuilder literal = new StringBuilder();
+        int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') {
+                    literal.append(c);
+                    i++;
+                    continue;
+                }
+                int end = i + 1;
+                while (true) {
+                    if (end >= length) {
+                        throw new IllegalArgumentException("Unterminated quote");
+                    }
+                    char q = pattern.charAt(end);
+                    if (q == '\'') {
+                        if (end + 1 < length && pattern.charAt(end + 1) == '\'') {
+                            literal.append(q);
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    literal.append(q);
+                    end++;
+                }
+                i = end;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                if (PATTERN_LETTERS.indexOf(c) < 0) {
+                    throw new IllegalArgumentException("Illegal pattern character '" + c + "'");
+                }
+                int count = 1;
+                while (i + 1 < length && pattern.charAt(i + 1) == c) {
+                    count++;
+                    i++;
+                }
+                if (COMPILED_LETTERS.indexOf(c) < 0 || (c == 'X' && count > 3)) {
+                    if (c == 'X') {
+                        throw new IllegalArgumentException("invalid ISO 8601 format: length=" + count);
+                    }
+                    compiled = false;
+                    continue;
+                }
+                if (literal.length() > 0) {
+                    elements.add(new Literal(literal.toString()));
+                    literal.setLength(0);
+                }
+                hasDayOfMonth |= (c == 'd');
+                hasDayOfWeek |= (c == 'E');
+                hasZoneName |= (c == 'z');
+                elements.add(createElement(c, count));
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            elements.add(new Literal(literal.toString()));
+        }
+        // a day of week only takes part in resolving the date without a day of month
+        if (hasDayOfWeek && !hasDayOfMonth) {
+            compiled = false;
+        }
+        Element[] array = null;
+        if (compiled) {
+            array = elements.toArray(new Element[elements.size()]);
+            // SimpleDateFormat reads a fixed number of digits when numbers abut
+            for (int i = 0; i < array.length - 1; i++) {
+                if (array[i] instanceof NumberField && array[i + 1] instanceof NumberField) {
+                    ((NumberField) array[i]).iObeyCount = true;
+                }
+            }
+        }
+        return new PatternFormatter(pattern, array, !hasZoneName);
+    }
+
+    private static Element createElement(char c, int count) {
+        switch (c) {
+            case 'y':
+                return new NumberField(YEAR, count);
+            case 'M':
+                return (count <= 2 ? new NumberField(MONTH, count) : (Element) new TextField(MONTH, count));
+            case 'd':
+                return new NumberField(DAY_OF_MONTH, count);
+            case 'H':
+                return new NumberField(HOUR_OF_DAY, count);
+            case 'k':
+                return new NumberField(HOUR_OF_DAY1, count);
+            case 'K':
+                return new NumberField(HOUR, count);
+            case 'h':
+                return new NumberField(HOUR1, count);
+            case 'm':
+                return new NumberField(MINUTE, count);
+            case 's':
+                return new NumberField(SECOND, count);
+            case 'S':
+                return new NumberField(MILLISECOND, count);
+            case 'E':
+                return new TextField(DAY_OF_WEEK, count);
+            case 'a':
+                return new TextField(AM_PM, count);
+            default:
+                return new OffsetField(c, count);
+        }
+    }
+
+    /**
+     * Gets the locale data needed by the elements, cached for the last
+     * locale used.
+     */
+    private static Symbols getSymbols(Locale locale) {
+        Symbols symbols = cSymbols;
+        if (symbols == null || !symbols.iLocale.equals(locale)) {
+            symbols = new Symbols(locale);
+            cSymbols = symbols;
+        }
+        return symbols;
+    }
+
+    //-----------------------------------------------------------------------
+    private final String iPattern;
+    /** The compiled elements, null if the pattern is only handled by SimpleDateFormat. */
+    private final Element[] iElements;
+    /** Whether printing can use the elements, false for zone names. */
+    private final boolean iPrintCompiled;
+    /** The index of the only millisecond element, -1 if there is none, -2 if there are several. */
+    private final int iMillisIndex;
+
+    private PatternFormatter(String pattern, Element[] elements, boolean printCompiled) {
+        iPattern = pattern;
+        iElements = elements;
+        iPrintCompiled = printCompiled;
+        int millisIndex = -1;
+        for (int i = 0; elements != null && i < elements.length; i++) {
+            if (elements[i] instanceof NumberField && ((NumberField) elements[i]).iField == MILLISECOND) {
+                millisIndex = (millisIndex == -1 ? i : -2);
+            }
+        }
+        iMillisIndex = millisIndex;
+    }
+
+    /**
+     * Parses text to an instant. Fields missing from the pattern default to
+     * 1970-01-01T00:00:00.000, and the default time zone is used unless the
+     * text has an offset.
+     *
+     * @param text  the text to parse
+     * @return the parsed instant
+     * @throws ParseException if the text cannot be parsed
+     */
+    long parseMillis(String text) throws ParseException {
+        long millis = parseCompiled(text);
+        if (millis != INVALID_MILLIS) {
+            return millis;
+        }
+        return new SimpleDateFormat(iPattern).parse(text).getTime();
+    }
+
+    /**
+     * Parses text to an instant without throwing for invalid text.
+     *
+     * @param text  the text to parse
+     * @return the parsed instant, or {@link #INVALID_MILLIS} if the text cannot be parsed
+     */
+    long tryParseMillis(String text) {
+        long millis = parseCompiled(text);
+        if (millis != INVALID_MILLIS) {
+            return millis;
+        }
+        // text the elements reject may still be accepted by SimpleDateFormat
+        Date date = new SimpleDateFormat(iPattern).parse(text, new ParsePosition(0));
+        return (date == null ? INVALID_MILLIS : date.getTime());
+    }
+
+    /**
+     * Parses text with the compiled elements.
+     *
+     * @return the parsed instant, or {@link #INVALID_MILLIS} if SimpleDateFormat is needed
+     */
+    private long parseCompiled(String text) {
+        if (iElements != null) {
+            Symbols symbols = getSymbols(Locale.getDefault());
+            if (symbols.iCompatible) {
+                Bucket bucket = new Bucket(DateTimeZone.getDefault());
+                int position = 0;
+                for (int i = 0; i < iElements.length && position >= 0; i++) {
+                    position = iElements[i].parseInto(bucket, text, position, symbols);
+                }
+                if (position >= 0 && bucket.computeMillis()) {
+                    return bucket.iMillis;
+                }
+            }
+        }
+        return INVALID_MILLIS;
+    }
+
+    /**
+     * Prints an instant in a time zone.
+     *
+     * @param buf  the buffer to append to
+     * @param instant  the instant to print
+     * @param zone  the time zone to print in
+     */
+    void printTo(StringBuilder buf, long instant, DateTimeZone zone) {
+        if (iElements != null && iPrintCompiled) {
+            Symbols symbols = getSymbols(Locale.getDefault());
+            int offset = zone.getOffset(instant);
+            long localMillis = instant + offset;
+            if (symbols.iCompatible && localMillis >= MIN_LOCAL_MILLIS) {
+                long epochDay = ChronologyUtils.getEpochDay(localMillis);
+                long date = ChronologyUtils.fromEpochDay(epochDay);
+                int millisOfDay = (int) (localMillis - epochDay * DateTimeConstants.MILLIS_PER_DAY);
+                for (Element element : iElements) {
+                    element.printTo(buf, epochDay, date, millisOfDay, offset, symbols);
+                }
+                return;
+            }
+        }
+        SimpleDateFormat format = new SimpleDateFormat(iPattern);
+        format.setTimeZone(zone.getTimeZone());
+        buf.append(format.format(new Date(instant)));
+    }
+
+    /**
+     * Prints the parts of an instant that stay the same for the whole
+     * second, for {@link SecondCache}: the text before the millisecond
+     * field and the text after it.
+     *
+     * @param instant  the instant to print, on or in the second
+     * @param zone  the time zone to print in, with an offset of whole seconds
+     * @param locale  the locale to print in
+     * @return the text before and after the millisecond field, null if
+     *  the pattern or instant needs SimpleDateFormat
+     */
+    String[] printSecond(long instant, DateTimeZone zone, Locale locale) {
+        if (iElements == null || !iPrintCompiled || iMillisIndex == -2) {
+            return null;
+        }
+        Symbols symbols = getSymbols(locale);
+        int offset = zone.getOffset(instant);
+        long localMillis = instant + offset;
+        if (!symbols.iCompatible || localMillis < MIN_LOCAL_MILLIS) {
+            return null;
+        }
+        long epochDay = ChronologyUtils.getEpochDay(localMillis);
+        long date = ChronologyUtils.fromEpochDay(epochDay);
+        int millisOfDay = (int) (localMillis - epochDay * DateTimeConstants.MILLIS_PER_DAY);
+        StringBuilder head = new StringBuilder(iPattern.length() + 8);
+        StringBuilder tail = new StringBuilder();
+        for (int i = 0; i < iElements.length; i++) {
+            if (i != iMillisIndex) {
+                iElements[i].printTo(i < iMillisIndex || iMillisIndex < 0 ? head : tail, epochDay, date, millisOfDay, offset, symbols);
+            }
+        }
+        return new String[] {head.toString(), tail.toString()};
+    }
+
+    /**
+     * Prints the millisecond field, if the pattern has one, for
+     * {@link SecondCache}.
+     *
+     * @param buf  the buffer to append to
+     * @param millisOfSecond  the millisecond of the second
+     */
+    void printMillisOfSecondTo(StringBuilder buf, int millisOfSecond) {
+        if (iMillisIndex >= 0) {
+            // the millisecond field only uses the millis of the day
+            iElements[iMillisIndex].printTo(buf, 0, 0, millisOfSecond, 0, null);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Locale data for one locale.
+     */
+    private static final class Symbols {
+        final Locale iLocale;
+        final String[] iMonths;
+        final String[] iShortMonths;
+        final String[] iWeekdays;
+        final String[] iShortWeekdays;
+        final String[] iAmPm;
+        final String iExponent;
+        /** Whether SimpleDateFormat uses ASCII digits and a Gregorian calendar. */
+        final boolean iCompatible;
+
+        Symbols(Locale locale) {
+            DateFormatSymbols symbols = DateTimeUtils.getDateFormatSymbols(locale);
+            DecimalFormatSymbols decimal = new DecimalFormatSymbols(locale);
+            iLocale = locale;
+            iMonths = symbols.getMonths();
+            iShortMonths = symbols.getShortMonths();
+            iWeekdays = symbols.getWeekdays();
+            iShortWeekdays = symbols.getShortWeekdays();
+            iAmPm = symbols.getAmPmStrings();
+            iExponent = decimal.getExponentSeparator();
+            iCompatible = decimal.getZeroDigit() == '0'
+                    && Calendar.getInstance(locale) instanceof GregorianCalendar;
+        }
+    }
+
+    /**
+     * The fields parsed so far, resolved the way a lenient GregorianCalendar
+     * resolves them. Where fields overlap, the one parsed last wins.
+     */
+    private static final class Bucket {
+        final DateTimeZone iZone;
+        int iStamp;
+        int iYear = 1970;
+        int iMonth;
+        int iDayOfMonth = 1;
+        int iHourOfDay;
+        int iHour;
+        int iAmPm;
+        int iHourOfDayStamp;
+        int iHourStamp;
+        int iAmPmStamp;
+        int iMinute;
+        int iSecond;
+        int iMillisOfSecond;
+        boolean iOffsetParsed;
+        int iOffset;
+        boolean iAmbiguousYear;
+        DateTime iCenturyStart;
+        /** The result of {@link #computeMillis()}. */
+        long iMillis;
+
+        Bucket(DateTimeZone zone) {
+            iZone = zone;
+        }
+
+        /**
+         * Gets the start of the 100 year window for two digit years, 80
+         * years before now.
+         */
+        DateTime getCenturyStart() {
+            if (iCenturyStart == null) {
+                iCenturyStart = new DateTime(DateTimeUtils.currentTimeMillis(), iZone).minusYears(80);
+            }
+            return iCenturyStart;
+        }
+
+        void set(int field, int value) {
+            switch (field) {
+                case YEAR:
+                    iYear = value;
+                    break;
+                case MONTH:
+                    iMonth = value;
+                    break;
+                case DAY_OF_MONTH:
+                    iDayOfMonth = value;
+                    break;
+                case HOUR_OF_DAY:
+                    iHourOfDay = value;
+                    iHourOfDayStamp = ++iStamp;
+                    break;
+                case HOUR:
+                    iHour = value;
+                    iHourStamp = ++iStamp;
+                    break;
+                case AM_PM:
+                    iAmPm = value;
+                    iAmPmStamp = ++iStamp;
+                    break;
+                case MINUTE:
+                    iMinute = value;
+                    break;
+                case SECOND:
+                    iSecond = value;
+                    break;
+                case MILLISECOND:
+                    iMillisOfSecond = value;
+                    break;
+                default:
+                    // the day of week is superseded by the day of month
+                    break;
+            }
+        }
+
+        /**
+         * Computes the instant, false if the date is out of the range
+         * handled here.
+         */
+        boolean computeMillis() {
+            long millis = computeMillis(iYear);
+            if (millis == Long.MIN_VALUE) {
+                return false;
+            }
+            if (iAmbiguousYear && millis < getCenturyStart().getMillis()) {
+                millis = computeMillis(iYear + 100);
+                if (millis == Long.MIN_VALUE) {
+                    return false;
+                }
+            }
+            iMillis = millis;
+            return true;
+        }
+
+        private long computeMillis(int year) {
+            long hours;
+            int hourStamp = (iHourStamp != 0 && iAmPmStamp != 0 ? Math.max(iHourStamp, iAmPmStamp) : 0);
+            int bestStamp = Math.max(hourStamp, iHourOfDayStamp);
+            if (bestStamp == 0) {
+                bestStamp = Math.max(iHourStamp, iAmPmStamp);
+            }
+            if (bestStamp == 0) {
+                hours = 0;
+            } else if (bestStamp == iHourOfDayStamp) {
+                hours = iHourOfDay;
+            } else {
+                hours = 12L * iAmPm + iHour;
+            }
+            // months out of range roll over into the year
+            int years = (iMonth >= 0 ? iMonth / 12 : (iMonth - 11) / 12);
+            long y = (long) year + years;
+            // GregorianCalendar picks the Julian calendar by the year before rolling over
+            if (y > MAX_YEAR || y < 1583 || year < 1583) {
+                return Long.MIN_VALUE;
+            }
+            long localMillis = ChronologyUtils.toEpochDay((int) y, iMonth - years * 12 + 1, iDayOfMonth) * DateTimeConstants.MILLIS_PER_DAY
+                    + hours * DateTimeConstants.MILLIS_PER_HOUR
+                    + (long) iMinute * DateTimeConstants.MILLIS_PER_MINUTE
+                    + (long) iSecond * DateTimeConstants.MILLIS_PER_SECOND
+                    + iMillisOfSecond;
+            if (localMillis < MIN_LOCAL_MILLIS) {
+                return Long.MIN_VALUE;
+            }
+            return (iOffsetParsed ? localMillis - iOffset : iZone.convertLocalToUTC(localMillis, false));
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * A compiled part of the pattern.
+     */
+    private abstract static class Element {
+        /**
+         * Prints the element.
+         *
+         * @param buf  the buffer to append to
+         * @param epochDay  the local day count from 1970-01-01
+         * @param date  the local date, packed by ChronologyUtils
+         * @param millisOfDay  the local millis of the day
+         * @param offset  the offset from UTC
+         * @param symbols  the locale data
+         */
+        abstract void printTo(StringBuilder buf, long epochDay, long date, int millisOfDay, int offset, Symbols symbols);
+
+        /**
+         * Parses the element.
+         *
+         * @return the position after the element, negative if it did not match
+         */
+        abstract int parseInto(Bucket bucket, String text, int position, Symbols symbols);
+    }
+
+    private static final class Literal extends Element {
+        private final String iText;
+
+        Literal(String text) {
+            iText = text;
+        }
+
+        void printTo(StringBuilder buf, long epochDay, long date, int millisOfDay, int offset, Symbols symbols) {
+            buf.append(iText);
+        }
+
+        int parseInto(Bucket bucket, String text, int position, Symbols symbols) {
+            return (text.startsWith(iText, position) ? position + iText.length() : -1);
+        }
+    }
+
+    private static final class NumberField extends Element {
+        private final int iField;
+        private final int iCount;
+        /** Set when a number follows directly, limiting the digits read. */
+        boolean iObeyCount;
+
+        NumberField(int field, int count) {
+            iField = field;
+            iCount = count;
+        }
+
+        void printTo(StringBuilder buf, long epochDay, long date, int millisOfDay, int offset, Symbols symbols) {
+            int hourOfDay = millisOfDay / DateTimeConstants.MILLIS_PER_HOUR;
+            int value;
+            switch (iField) {
+                case YEAR:
+                    value = ChronologyUtils.getPackedYear(date);
+                    if (iCount == 2) {
+                        FormatUtils.appendPaddedInteger(buf, value % 100, 2);
+                        return;
+                    }
+                    break;
+                case MONTH:
+                    value = ChronologyUtils.getPackedMonth(date);
+                    break;
+                case DAY_OF_MONTH:
+                    value = ChronologyUtils.getPackedDay(date);
+                    break;
+                case HOUR_OF_DAY:
+                    value = hourOfDay;
+                    break;
+                case HOUR_OF_DAY1:
+                    value = (hourOfDay == 0 ? 24 : hourOfDay);
+                    break;
+                case HOUR:
+                    value = hourOfDay % 12;
+                    break;
+                case HOUR1:
+                    value = (hourOfDay % 12 == 0 ? 12 : hourOfDay % 12);
+                    break;
+                case MINUTE:
+                    value = (millisOfDay / DateTimeConstants.MILLIS_PER_MINUTE) % 60;
+                    break;
+                case SECOND:
+                    value = (millisOfDay / DateTimeConstants.MILLIS_PER_SECOND) % 60;
+                    break;
+                default:
+                    value = millisOfDay % DateTimeConstants.MILLIS_PER_SECOND;
+                    break;
+            }
+            FormatUtils.appendPaddedInteger(buf, value, iCount);
+        }
+
+        int parseInto(Bucket bucket, String text, int position, Symbols symbols) {
+            int length = text.length();
+            int limit = length;
+            if (iObeyCount) {
+                limit = position + iCount;
+                if (limit > length) {
+                    return -1;
+                }
+            }
+            // leading spaces are skipped, even past the count
+            int start = position;
+            while (start < length && (text.charAt(start) == ' ' || text.charAt(start) == '\t')) {
+                start++;
+            }
+            int index = start;
+            int value = 0;
+            while (index < limit && index - start < 9) {
+                char c = text.charAt(index);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                index++;
+            }
+            if (index == start) {
+                return -1;
+            }
+            if (index < limit) {
+                // leave signs, other digits and exponents to SimpleDateFormat
+                char c = text.charAt(index);
+                if (Character.isDigit(c) || text.startsWith(symbols.iExponent, index)) {
+                    return -1;
+                }
+            }
+            switch (iField) {
+                case YEAR:
+                    if (iCount <= 2 && index - start == 2) {
+                        int centuryStartYear = bucket.getCenturyStart().getYear();
+                        int ambiguousYear = centuryStartYear % 100;
+                        bucket.iAmbiguousYear = (value == ambiguousYear);
+                        value += (centuryStartYear / 100) * 100 + (value < ambiguousYear ? 100 : 0);
+                    }
+                    bucket.set(YEAR, value);
+                    break;
+                case MONTH:
+                    bucket.set(MONTH, value - 1);
+                    break;
+                case HOUR_OF_DAY1:
+                    bucket.set(HOUR_OF_DAY, (value == 24 ? 0 : value));
+                    break;
+                case HOUR1:
+                    bucket.set(HOUR, (value == 12 ? 0 : value));
+                    break;
+                default:
+                    bucket.set(iField, value);
+                    break;
+            }
+            return index;
+        }
+    }
+
+    private static final class TextField extends Element {
+        private final int iField;
+        private final int iCount;
+
+        TextField(int field, int count) {
+            iField = field;
+            iCount = count;
+        }
+
+        void printTo(StringBuilder buf, long epochDay, long date, int millisOfDay, int offset, Symbols symbols) {
+            switch (iField) {
+                case MONTH:
+                    int month = ChronologyUtils.getPackedMonth(date) - 1;
+                    buf.append(iCount >= 4 ? symbols.iMonths[month] : symbols.iShortMonths[month]);
+                    break;
+                case DAY_OF_WEEK:
+                    // Calendar numbers the days from Sunday
+                    int dayOfWeek = (int) (((epochDay + 4) % 7 + 7) % 7) + 1;
+                    buf.append(iCount >= 4 ? symbols.iWeekdays[dayOfWeek] : symbols.iShortWeekdays[dayOfWeek]);
+                    break;
+                default:
+                    buf.append(symbols.iAmPm[millisOfDay < 12 * DateTimeConstants.MILLIS_PER_HOUR ? 0 : 1]);
+                    break;
+            }
+        }
+
+        int parseInto(Bucket bucket, String text, int position, Symbols symbols) {
+            switch (iField) {
+                case MONTH: {
+                    int index = match(bucket, text, position, symbols.iMonths, 0);
+                    return (index >= 0 ? index : match(bucket, text, position, symbols.iShortMonths, 0));
+                }
+                case DAY_OF_WEEK: {
+                    int index = match(bucket, text, position, symbols.iWeekdays, 1);
+                    return (index >= 0 ? index : match(bucket, text, position, symbols.iShortWeekdays, 1));
+                }
+                default:
+                    return match(bucket, text, position, symbols.iAmPm, 0);
+            }
+        }
+
+        /**
+         * Matches the longest of the names, ignoring case.
+         */
+        private int match(Bucket bucket, String text, int position, String[] names, int first) {
+            int best = -1;
+            int bestLength = 0;
+            for (int i = first; i < names.length; i++) {
+                int length = names[i].length();
+                if (length > bestLength && text.regionMatches(true, position, names[i], 0, length)) {
+                    best = i;
+                    bestLength = length;
+                }
+            }
+            if (best < 0) {
+                return -1;
+            }
+            bucket.set(iField, best);
+            return position + bestLength;
+        }
+    }
+
+    /**
+     * The offset letters: <code>Z</code> as <code>+hhmm</code>, <code>z</code>
+     * parsed in the same way, and <code>X</code> in the ISO forms.
+     */
+    private static final class OffsetField extends Element {
+        private final char iLetter;
+        private final int iCount;
+
+        OffsetField(char letter, int count) {
+            iLetter = letter;
+            iCount = count;
+        }
+
+        void printTo(StringBuilder buf, long epochDay, long date, int millisOfDay, int offset, Symbols symbols) {
+            int minutes = offset / DateTimeConstants.MILLIS_PER_MINUTE;
+            if (iLetter == 'X' && offset == 0) {
+                buf.append('Z');
+                return;
+            }
+            buf.append(minutes >= 0 ? '+' : '-');
+            minutes = Math.abs(minutes);
+            if (iLetter != 'X') {
+                FormatUtils.appendPaddedInteger(buf, (minutes / 60) * 100 + minutes % 60, 4);
+                return;
+            }
+            FormatUtils.appendPaddedInteger(buf, minutes / 60, 2);
+            if (iCount == 1) {
+                return;
+            }
+            if (iCount == 3) {
+                buf.append(':');
+            }
+            FormatUtils.appendPaddedInteger(buf, minutes % 60, 2);
+        }
+
+        int parseInto(Bucket bucket, String text, int position, Symbols symbols) {
+            int length = text.length();
+            int index = position;
+            while (index < length && (text.charAt(index) == ' ' || text.charAt(index) == '\t')) {
+                index++;
+            }
+            if (index >= length) {
+                return -1;
+            }
+            char c = text.charAt(index);
+            if (iLetter == 'X') {
+                if (c == 'Z') {
+                    return setOffset(bucket, 0, index + 1);
+                }
+                if (c != '+' && c != '-') {
+                    return -1;
+                }
+                return parseOffset(bucket, text, index + 1, (c == '-'), iCount, iCount == 3);
+            }
+            if (c == '+' || c == '-') {
+                return parseOffset(bucket, text, index + 1, (c == '-'), 0, false);
+            }
+            // the GMT prefix is only matched where the element starts
+            if (text.regionMatches(true, position, "GMT", 0, 3)) {
+                index = position + 3;
+                c = (index < length ? text.charAt(index) : 0);
+                if (c != '+' && c != '-') {
+                    return setOffset(bucket, 0, index);
+                }
+                return parseOffset(bucket, text, index + 1, (c == '-'), 0, true);
+            }
+            // zone names are left to SimpleDateFormat
+            return -1;
+        }
+
+        /**
+         * Parses <code>hh[[:]mm]</code>. Two digit hours are needed unless
+         * the form has a colon, and minutes unless the count is one.
+         */
+        private int parseOffset(Bucket bucket, String text, int index, boolean negative, int count, boolean colon) {
+            int length = text.length();
+            if (index >= length || !isDigit(text.charAt(index))) {
+                return -1;
+            }
+            int hours = text.charAt(index++) - '0';
+            if (index < length && isDigit(text.charAt(index))) {
+                hours = hours * 10 + (text.charAt(index++) - '0');
+            } else if (count > 0 || !colon) {
+                return -1;
+            }
+            if (hours > 23) {
+                return -1;
+            }
+            int minutes = 0;
+            if (count != 1) {
+                if (colon) {
+                    if (index >= length || text.charAt(index) != ':') {
+                        return -1;
+                    }
+                    index++;
+                }
+                if (index + 1 >= length || !isDigit(text.charAt(index)) || !isDigit(text.charAt(index + 1))) {
+                    return -1;
+                }
+                minutes = (text.charAt(index) - '0') * 10 + (text.charAt(index + 1) - '0');
+                index += 2;
+                if (minutes > 59) {
+                    return -1;
+                }
+            }
+            int offset = (hours * 60 + minutes) * DateTimeConstants.MILLIS_PER_MINUTE;
+            return setOffset(bucket, negative ? -offset : offset, index);
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static int setOffset(Bucket bucket, int offset, int index) {
+            bucket.iOffsetParsed = true;
+            bucket.iOffset = offset;
+            return index;
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package org.joda.time.format;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.internal.utils.ISO8601Utils;
+
+/**
+ * Caches the text a formatter prints for one second, per time zone, so that
+ * printing another instant in the same second only appends the milliseconds.
+ * <p>
+ * This suits printing the current time at a high rate, where almost every
+ * call falls in the same second as the one before. Each entry is immutable
+ * and a new second simply replaces the entry for its zone, so the cache is
+ * thread-safe without locking. Threads printing different seconds in the
+ * same zone just replace each other's entries.
+ *
+ * @see DateTimeFormatter#withSecondCache()
+ */
+final class SecondCache {
+
+    /** The compiled pattern, null for ISO8601. */
+    private final PatternFormatter iFormatter;
+    private final ConcurrentMap<DateTimeZone, Entry> iEntries = new ConcurrentHashMap<DateTimeZone, Entry>();
+
+    SecondCache(PatternFormatter formatter) {
+        iFormatter = formatter;
+    }
+
+    /**
+     * Prints an instant, using the cached text for its second if possible.
+     *
+     * @param instant  the instant to print
+     * @param zone  the time zone to print in
+     * @return the printed text, null if the instant cannot be printed from the cache
+     */
+    String print(long instant, DateTimeZone zone) {
+        StringBuilder buf = new StringBuilder(ISO8601Utils.MAX_FORMAT_LENGTH);
+        return (printTo(buf, instant, zone) ? buf.toString() : null);
+    }
+
+    /**
+     * Appends an instant, using the cached text for its second if possible.
+     *
+     * @param buf  the buffer to append to
+     * @param instant  the instant to print
+     * @param zone  the time zone to print in
+     * @return true if printed, false if the instant cannot be printed from
+     *  the cache, in which case nothing is appended
+     */
+    boolean printTo(StringBuilder buf, long instant, DateTimeZone zone) {
+        long second = instant / DateTimeConstants.MILLIS_PER_SECOND;
+        int millisOfSecond = (int) (instant - second * DateTimeConstants.MILLIS_PER_SECOND);
+        if (millisOfSecond < 0) {
+            second--;
+            millisOfSecond += DateTimeConstants.MILLIS_PER_SECOND;
+        }
+        Locale locale = (iFormatter == null ? null : Locale.getDefault());
+        Entry entry = iEntries.get(zone);
+        // zones are equal by ID and raw offset, so the entry must be for this very zone
+        if (entry == null || entry.iZone != zone || entry.iSecond != second || entry.iLocale != locale) {
+            entry = createEntry(second, zone, locale);
+            if (entry == null) {
+                return false;
+            }
+            iEntries.put(zone, entry);
+        }
+        buf.append(entry.iHead);
+        if (iFormatter == null) {
+            FormatUtils.appendPaddedInteger(buf, millisOfSecond, 3);
+        } else {
+            iFormatter.printMillisOfSecondTo(buf, millisOfSecond);
+        }
+        buf.append(entry.iTail);
+        return true;
+    }
+
+    private Entry createEntry(long second, DateTimeZone zone, Locale locale) {
+        long instant = second * DateTimeConstants.MILLIS_PER_SECOND;
+        int offset = zone.getOffset(instant);
+        if (offset % DateTimeConstants.MILLIS_PER_SECOND != 0) {
+            // the local second would not line up with the UTC second
+            return null;
+        }
+        if (iFormatter == null) {
+            String text = ISO8601Utils.format(instant, offset);
+            int dot = text.indexOf('.');
+            return new Entry(zone, second, locale, text.substring(0, dot + 1), text.substring(dot + 4));
+        }
+        String[] parts = iFormatter.printSecond(instant, zone, locale);
+        if (parts == null) {
+            return null;
+        }
+        return new Entry(zone, second, locale, parts[0], parts[1]);
+    }
+
+    /**
+     * The text printed for one second in one zone.
+     */
+    private static final class Entry {
+        final DateTimeZone iZone;
+        final long iSecond;
+        /** The locale printed in, null for ISO8601. */
+        final Locale iLocale;
+        /** The text before the milliseconds. */
+        final String iHead;
+        /** The text after the milliseconds. */
+        final String iTail;
+
+        Entry(DateTimeZone zone, long second, Locale locale, String head, String tail) {
+            iZone = zone;
+            iSecond = second;
+            iLocale = locale;
+            iHead = head;
+            iTail = tail;
+        }
+    }
+
+}
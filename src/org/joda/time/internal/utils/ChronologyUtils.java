@@ -0,0 +1,620 @@
+package org.joda.time.internal.utils;
+
+import java.util.Calendar;
+
+import org.joda.time.DateTimeConstants;
+
+/**
+ * Arithmetic field calculations for the ISO (proleptic Gregorian) calendar.
+ * <p>
+ * All methods work on "local" milliseconds, that is milliseconds from
+ * 1970-01-01T00:00:00 in the local time of the zone, as produced by
+ * {@link org.joda.time.DateTimeZone#convertUTCToLocal(long)}. No
+ * {@link java.util.Calendar} is involved, so the field values are the ones
+ * of the proleptic Gregorian calendar and differ from
+ * {@link java.util.GregorianCalendar} only before the 1582 cutover.
+ * <p>
+ * The algorithms are the ones used by Joda-Time's BasicGJChronology,
+ * including its cache of year start millis, so extracting a field is a
+ * few divisions and table lookups.
+ */
+public final class ChronologyUtils {
+
+    /** The lowest year that can be fully supported. */
+    public static final int MIN_YEAR = -292275054;
+
+    /** The highest year that can be fully supported. */
+    public static final int MAX_YEAR = 292278993;
+
+    private static final long MILLIS_PER_YEAR =
+        (long) (365.2425 * DateTimeConstants.MILLIS_PER_DAY);
+
+    private static final long AVERAGE_MILLIS_PER_YEAR_DIVIDED_BY_TWO = MILLIS_PER_YEAR / 2;
+
+    private static final long APPROX_MILLIS_AT_EPOCH_DIVIDED_BY_TWO = (1970L * MILLIS_PER_YEAR) / 2;
+
+    private static final int DAYS_0000_TO_1970 = 719527;
+
+    private static final int[] MIN_DAYS_PER_MONTH_ARRAY = {
+        31,28,31,30,31,30,31,31,30,31,30,31
+    };
+
+    private static final int[] MAX_DAYS_PER_MONTH_ARRAY = {
+        31,29,31,30,31,30,31,31,30,31,30,31
+    };
+
+    private static final long[] MIN_TOTAL_MILLIS_BY_MONTH_ARRAY;
+    private static final long[] MAX_TOTAL_MILLIS_BY_MONTH_ARRAY;
+
+    private static final int CACHE_SIZE = 1 << 10;
+    private static final int CACHE_MASK = CACHE_SIZE - 1;
+
+    /**
+     * Shared cache of year start millis. Entries are immutable, so the
+     * array can be read and written without locking: a racing thread at
+     * worst computes the same entry twice.
+     */
+    private static final YearInfo[] YEAR_INFO_CACHE = new YearInfo[CACHE_SIZE];
+
+    static {
+        MIN_TOTAL_MILLIS_BY_MONTH_ARRAY = new long[12];
+        MAX_TOTAL_MILLIS_BY_MONTH_ARRAY = new long[12];
+
+        long minSum = 0;
+        long maxSum = 0;
+        for (int i = 0; i < 11; i++) {
+            long millis = MIN_DAYS_PER_MONTH_ARRAY[i]
+                * (long) DateTimeConstants.MILLIS_PER_DAY;
+            minSum += millis;
+            MIN_TOTAL_MILLIS_BY_MONTH_ARRAY[i + 1] = minSum;
+
+            millis = MAX_DAYS_PER_MONTH_ARRAY[i]
+                * (long) DateTimeConstants.MILLIS_PER_DAY;
+            maxSum += millis;
+            MAX_TOTAL_MILLIS_BY_MONTH_ARRAY[i + 1] = maxSum;
+        }
+    }
+
+    /**
+     * Restricted constructor.
+     */
+    private ChronologyUtils() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Is the specified year a leap year?
+     *
+     * @param year  the year to test
+     * @return true if leap
+     */
+    public static boolean isLeapYear(int year) {
+        return ((year & 3) == 0) && ((year % 100) != 0 || (year % 400) == 0);
+    }
+
+    /**
+     * Gets the milliseconds for the start of a year.
+     *
+     * @param year  the year
+     * @return the millis of 1st January 00:00 of the year
+     */
+    public static long getYearMillis(int year) {
+        return getYearInfo(year).iFirstDayMillis;
+    }
+
+    private static YearInfo getYearInfo(int year) {
+        YearInfo info = YEAR_INFO_CACHE[year & CACHE_MASK];
+        if (info == null || info.iYear != year) {
+            info = new YearInfo(year, calculateFirstDayOfYearMillis(year));
+            YEAR_INFO_CACHE[year & CACHE_MASK] = info;
+        }
+        return info;
+    }
+
+    private static long calculateFirstDayOfYearMillis(int year) {
+        int leapYears = year / 100;
+        if (year < 0) {
+            // Add 3 before shifting right since /4 and >>2 behave differently
+            // on negative numbers. When the expression is written as
+            // (year / 4) - (year / 100) + (year / 400),
+            // it works for both positive and negative values, except this optimization
+            // eliminates two divisions.
+            leapYears = ((year + 3) >> 2) - leapYears + ((leapYears + 3) >> 2) - 1;
+        } else {
+            leapYears = (year >> 2) - leapYears + (leapYears >> 2);
+            if (isLeapYear(year)) {
+                leapYears--;
+            }
+        }
+
+        return (year * 365L + (leapYears - DAYS_0000_TO_1970)) * DateTimeConstants.MILLIS_PER_DAY;
+    }
+
+    /**
+     * Gets the year of the local millis.
+     *
+     * @param instant  the local millis
+     * @return the year
+     */
+    public static int getYear(long instant) {
+        // Get an initial estimate of the year, and the millis value that
+        // represents the start of that year. Then verify estimate and fix if
+        // necessary.
+
+        // Initial estimate uses values divided by two to avoid overflow.
+        long unitMillis = AVERAGE_MILLIS_PER_YEAR_DIVIDED_BY_TWO;
+        long i2 = (instant >> 1) + APPROX_MILLIS_AT_EPOCH_DIVIDED_BY_TWO;
+        if (i2 < 0) {
+            i2 = i2 - unitMillis + 1;
+        }
+        int year = (int) (i2 / unitMillis);
+
+        YearInfo info = getYearInfo(year);
+        long yearStart = info.iFirstDayMillis;
+        long diff = instant - yearStart;
+
+        if (diff < 0) {
+            year--;
+        } else if (diff >= DateTimeConstants.MILLIS_PER_DAY * 365L) {
+            // One year may need to be added to fix estimate.
+            long oneYear;
+            if (info.iLeap) {
+                oneYear = DateTimeConstants.MILLIS_PER_DAY * 366L;
+            } else {
+                oneYear = DateTimeConstants.MILLIS_PER_DAY * 365L;
+            }
+
+            yearStart += oneYear;
+
+            if (yearStart <= instant) {
+                // Didn't go too far, so actually add one year.
+                year++;
+            }
+        }
+
+        return year;
+    }
+
+    /**
+     * Gets the month of the year of the local millis.
+     *
+     * @param millis  the local millis
+     * @param year  the year of the millis, as returned by {@link #getYear(long)}
+     * @return the month, 1 (January) to 12 (December)
+     */
+    public static int getMonthOfYear(long millis, int year) {
+        // Perform a binary search to get the month. To make it go even faster,
+        // compare using ints instead of longs. The number of milliseconds per
+        // year exceeds the limit of a 32-bit int's capacity, so divide by
+        // 1024. No precision is lost (except time of day) since the number of
+        // milliseconds per day contains 1024 as a factor. After the division,
+        // the instant isn't measured in milliseconds, but in units of
+        // (128/125)seconds.
+
+        YearInfo info = getYearInfo(year);
+        int i = (int)((millis - info.iFirstDayMillis) >> 10);
+
+        // There are 86400000/1024 "units" per day, and a non-leap year has 365
+        // days. Maximum value of i is 0x1e185ff, which fits in an int.
+
+        return
+            (info.iLeap)
+            ? ((i < 182 * 84375)
+               ? ((i < 91 * 84375)
+                  ? ((i < 31 * 84375) ? 1 : (i < 60 * 84375) ? 2 : 3)
+                  : ((i < 121 * 84375) ? 4 : (i < 152 * 84375) ? 5 : 6))
+               : ((i < 274 * 84375)
+                  ? ((i < 213 * 84375) ? 7 : (i < 244 * 84375) ? 8 : 9)
+                  : ((i < 305 * 84375) ? 10 : (i < 335 * 84375) ? 11 : 12)))
+            : ((i < 181 * 84375)
+               ? ((i < 90 * 84375)
+                  ? ((i < 31 * 84375) ? 1 : (i < 59 * 84375) ? 2 : 3)
+                  : ((i < 120 * 84375) ? 4 : (i < 151 * 84375) ? 5 : 6))
+               : ((i < 273 * 84375)
+                  ? ((i < 212 * 84375) ? 7 : (i < 243 * 84375) ? 8 : 9)
+                  : ((i < 304 * 84375) ? 10 : (i < 334 * 84375) ? 11 : 12)));
+    }
+
+    /**
+     * Gets the day of the month of the local millis.
+     *
+     * @param millis  the local millis
+     * @param year  the year of the millis
+     * @param month  the month of the millis
+     * @return the day of the month, 1-based
+     */
+    public static int getDayOfMonth(long millis, int year, int month) {
+        YearInfo info = getYearInfo(year);
+        long dateMillis = info.iFirstDayMillis;
+        if (info.iLeap) {
+            dateMillis += MAX_TOTAL_MILLIS_BY_MONTH_ARRAY[month - 1];
+        } else {
+            dateMillis += MIN_TOTAL_MILLIS_BY_MONTH_ARRAY[month - 1];
+        }
+        return (int) ((millis - dateMillis) / DateTimeConstants.MILLIS_PER_DAY) + 1;
+    }
+
+    /**
+     * Gets the day of the week of the local millis.
+     *
+     * @param instant  the local millis
+     * @return the day of the week, 1 (Monday) to 7 (Sunday)
+     */
+    public static int getDayOfWeek(long instant) {
+        // 1970-01-01 is day of week 4, Thursday.
+
+        long daysSince19700101;
+        if (instant >= 0) {
+            daysSince19700101 = instant / DateTimeConstants.MILLIS_PER_DAY;
+        } else {
+            daysSince19700101 = (instant - (DateTimeConstants.MILLIS_PER_DAY - 1))
+                / DateTimeConstants.MILLIS_PER_DAY;
+            if (daysSince19700101 < -3) {
+                return 7 + (int) ((daysSince19700101 + 4) % 7);
+            }
+        }
+
+        return 1 + (int) ((daysSince19700101 + 3) % 7);
+    }
+
+    /**
+     * Gets the ISO week of the week based year of the local millis.
+     * Weeks start on Monday and the first week of the year is the one
+     * containing at least four days.
+     *
+     * @param instant  the local millis
+     * @return the week of the weekyear, 1-based
+     */
+    public static int getWeekOfWeekyear(long instant) {
+        return getWeekOfWeekyear(instant, getYear(instant));
+    }
+
+    /**
+     * Gets the ISO week of the week based year of the local millis.
+     *
+     * @param instant  the local millis
+     * @param year  the year of the millis
+     * @return the week of the weekyear, 1-based
+     */
+    public static int getWeekOfWeekyear(long instant, int year) {
+        long firstWeekMillis1 = getFirstWeekOfYearMillis(year);
+        if (instant < firstWeekMillis1) {
+            return getWeeksInYear(year - 1);
+        }
+        long firstWeekMillis2 = getFirstWeekOfYearMillis(year + 1);
+        if (instant >= firstWeekMillis2) {
+            return 1;
+        }
+        return (int) ((instant - firstWeekMillis1) / DateTimeConstants.MILLIS_PER_WEEK) + 1;
+    }
+
+    /**
+     * Gets the number of ISO weeks in the week based year.
+     *
+     * @param year  the weekyear
+     * @return the number of weeks, 52 or 53
+     */
+    public static int getWeeksInYear(int year) {
+        long firstWeekMillis1 = getFirstWeekOfYearMillis(year);
+        long firstWeekMillis2 = getFirstWeekOfYearMillis(year + 1);
+        return (int) ((firstWeekMillis2 - firstWeekMillis1) / DateTimeConstants.MILLIS_PER_WEEK);
+    }
+
+    /**
+     * Gets the millis of the Monday starting the first ISO week of the year.
+     *
+     * @param year  the weekyear
+     * @return the local millis
+     */
+    public static long getFirstWeekOfYearMillis(int year) {
+        long jan1millis = getYearMillis(year);
+        int jan1dayOfWeek = getDayOfWeek(jan1millis);
+
+        if (jan1dayOfWeek > 4) {
+            // First week is end of previous year because it doesn't have enough days.
+            return jan1millis + (8 - jan1dayOfWeek)
+                * (long) DateTimeConstants.MILLIS_PER_DAY;
+        } else {
+            // First week is start of this year because it has enough days.
+            return jan1millis - (jan1dayOfWeek - 1)
+                * (long) DateTimeConstants.MILLIS_PER_DAY;
+        }
+    }
+
+    /**
+     * Gets the milliseconds of the day of the local millis.
+     *
+     * @param instant  the local millis
+     * @return the millis of the day, from 0 to 86399999
+     */
+    public static int getMillisOfDay(long instant) {
+        if (instant >= 0) {
+            return (int) (instant % DateTimeConstants.MILLIS_PER_DAY);
+        } else {
+            return (DateTimeConstants.MILLIS_PER_DAY - 1)
+                + (int) ((instant + 1) % DateTimeConstants.MILLIS_PER_DAY);
+        }
+    }
+
+    /**
+     * Gets the number of days in the specified month.
+     *
+     * @param year  the year
+     * @param month  the month, 1-based
+     * @return the number of days
+     */
+    public static int getDaysInYearMonth(int year, int month) {
+        if (isLeapYear(year)) {
+            return MAX_DAYS_PER_MONTH_ARRAY[month - 1];
+        } else {
+            return MIN_DAYS_PER_MONTH_ARRAY[month - 1];
+        }
+    }
+
+    /**
+     * Gets the total number of millis elapsed in this year at the start
+     * of the specified month.
+     *
+     * @param year  the year
+     * @param month  the month, 1-based
+     * @return the elapsed millis at the start of the month
+     */
+    public static long getTotalMillisByYearMonth(int year, int month) {
+        if (isLeapYear(year)) {
+            return MAX_TOTAL_MILLIS_BY_MONTH_ARRAY[month - 1];
+        } else {
+            return MIN_TOTAL_MILLIS_BY_MONTH_ARRAY[month - 1];
+        }
+    }
+
+    /**
+     * Gets the local millis for midnight at the start of the date.
+     * The values are not validated.
+     *
+     * @param year  the year
+     * @param month  the month, 1-based
+     * @param dayOfMonth  the day of the month, 1-based
+     * @return the local millis
+     */
+    public static long getYearMonthDayMillis(int year, int month, int dayOfMonth) {
+        YearInfo info = getYearInfo(year);
+        long millis = info.iFirstDayMillis;
+        if (info.iLeap) {
+            millis += MAX_TOTAL_MILLIS_BY_MONTH_ARRAY[month - 1];
+        } else {
+            millis += MIN_TOTAL_MILLIS_BY_MONTH_ARRAY[month - 1];
+        }
+        return millis + (dayOfMonth - 1) * (long) DateTimeConstants.MILLIS_PER_DAY;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the day count from 1970-01-01 of the local millis.
+     *
+     * @param instant  the local millis
+     * @return the epoch day, negative before 1970
+     */
+    public static long getEpochDay(long instant) {
+        if (instant >= 0) {
+            return instant / DateTimeConstants.MILLIS_PER_DAY;
+        } else {
+            return (instant + 1) / DateTimeConstants.MILLIS_PER_DAY - 1;
+        }
+    }
+
+    /**
+     * Converts a date to the day count from 1970-01-01, using the closed form
+     * of the proleptic Gregorian calendar. The day is not validated, so a
+     * day past the end of the month rolls over into the next one.
+     *
+     * @param year  the year
+     * @param month  the month, 1-based
+     * @param dayOfMonth  the day of the month, 1-based
+     * @return the epoch day
+     */
+    public static long toEpochDay(int year, int month, int dayOfMonth) {
+        // years start in March so that the leap day is the last of the year
+        long y = (month <= 2 ? year - 1L : year);
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Converts a day count from 1970-01-01 to a date, packed in a single
+     * long so that no object is needed. Use {@link #getPackedYear(long)},
+     * {@link #getPackedMonth(long)} and {@link #getPackedDay(long)} to read it.
+     *
+     * @param epochDay  the epoch day
+     * @return the packed date
+     */
+    public static long fromEpochDay(long epochDay) {
+        long z = epochDay + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (int) ((5 * dayOfYear + 2) / 153);
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return packDate(year, month, day);
+    }
+
+    /**
+     * Packs a date in a long, see {@link #fromEpochDay(long)}.
+     */
+    public static long packDate(long year, int month, int dayOfMonth) {
+        return (year << 9) | (month << 5) | dayOfMonth;
+    }
+
+    public static int getPackedYear(long packedDate) {
+        return (int) (packedDate >> 9);
+    }
+
+    public static int getPackedMonth(long packedDate) {
+        return (int) (packedDate >> 5) & 0xF;
+    }
+
+    public static int getPackedDay(long packedDate) {
+        return (int) packedDate & 0x1F;
+    }
+
+    /**
+     * Adds months to the local millis keeping the time of day. As with
+     * {@link java.util.Calendar#add(int, int)}, the day of month is clamped
+     * to the last day of the resulting month.
+     *
+     * @param instant  the local millis
+     * @param months  the months to add, may be negative
+     * @return the new local millis
+     */
+    public static long addMonths(long instant, long months) {
+        long epochDay = getEpochDay(instant);
+        int millisOfDay = (int) (instant - epochDay * DateTimeConstants.MILLIS_PER_DAY);
+        long date = fromEpochDay(epochDay);
+
+        long monthIndex = getPackedYear(date) * 12L + (getPackedMonth(date) - 1) + months;
+        long newYear = (monthIndex >= 0 ? monthIndex / 12 : (monthIndex - 11) / 12);
+        if (newYear < MIN_YEAR || newYear > MAX_YEAR) {
+            throw new ArithmeticException("Year is outside the supported range: " + newYear);
+        }
+        int year = (int) newYear;
+        int month = (int) (monthIndex - newYear * 12) + 1;
+        int dayOfMonth = Math.min(getPackedDay(date), getDaysInYearMonth(year, month));
+
+        return toEpochDay(year, month, dayOfMonth) * DateTimeConstants.MILLIS_PER_DAY + millisOfDay;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Rounds the local millis down to the start of the field.
+     *
+     * @param instant  the local millis
+     * @param field  one of the Calendar field constants MILLISECOND, SECOND,
+     *  MINUTE, HOUR_OF_DAY, DAY_OF_MONTH, WEEK_OF_YEAR (ISO weeks), MONTH or YEAR
+     * @return the rounded local millis
+     * @throws IllegalArgumentException if the field is not supported
+     */
+    public static long roundFloor(long instant, int field) {
+        switch (field) {
+        case Calendar.MILLISECOND:
+            return instant;
+        case Calendar.SECOND:
+            return roundFloor(instant, (long) DateTimeConstants.MILLIS_PER_SECOND);
+        case Calendar.MINUTE:
+            return roundFloor(instant, (long) DateTimeConstants.MILLIS_PER_MINUTE);
+        case Calendar.HOUR_OF_DAY:
+            return roundFloor(instant, (long) DateTimeConstants.MILLIS_PER_HOUR);
+        case Calendar.DAY_OF_MONTH:
+            return roundFloor(instant, (long) DateTimeConstants.MILLIS_PER_DAY);
+        case Calendar.WEEK_OF_YEAR:
+            long midnight = roundFloor(instant, (long) DateTimeConstants.MILLIS_PER_DAY);
+            return midnight - (getDayOfWeek(midnight) - 1) * (long) DateTimeConstants.MILLIS_PER_DAY;
+        case Calendar.MONTH:
+            int year = getYear(instant);
+            return getYearMonthDayMillis(year, getMonthOfYear(instant, year), 1);
+        case Calendar.YEAR:
+            return getYearMillis(getYear(instant));
+        default:
+            throw new IllegalArgumentException("Unsupported field: " + field);
+        }
+    }
+
+    /**
+     * Adds one unit of the field to local millis previously rounded down
+     * with {@link #roundFloor(long, int)}.
+     *
+     * @param instant  the rounded local millis
+     * @param field  the field, as in {@link #roundFloor(long, int)}
+     * @return the local millis of the start of the next field
+     * @throws IllegalArgumentException if the field is not supported
+     */
+    public static long addUnit(long instant, int field) {
+        switch (field) {
+        case Calendar.MILLISECOND:
+            return instant + 1;
+        case Calendar.SECOND:
+            return instant + DateTimeConstants.MILLIS_PER_SECOND;
+        case Calendar.MINUTE:
+            return instant + DateTimeConstants.MILLIS_PER_MINUTE;
+        case Calendar.HOUR_OF_DAY:
+            return instant + DateTimeConstants.MILLIS_PER_HOUR;
+        case Calendar.DAY_OF_MONTH:
+            return instant + DateTimeConstants.MILLIS_PER_DAY;
+        case Calendar.WEEK_OF_YEAR:
+            return instant + DateTimeConstants.MILLIS_PER_WEEK;
+        case Calendar.MONTH:
+            return addMonths(instant, 1);
+        case Calendar.YEAR:
+            return addMonths(instant, 12);
+        default:
+            throw new IllegalArgumentException("Unsupported field: " + field);
+        }
+    }
+
+    private static long roundFloor(long instant, long unitMillis) {
+        if (instant >= 0) {
+            return instant - instant % unitMillis;
+        } else {
+            instant += 1;
+            return instant - instant % unitMillis - unitMillis;
+        }
+    }
+
+    /**
+     * Gets the local millis for the specified fields, validating each of them.
+     *
+     * @return the local millis
+     * @throws IllegalArgumentException if any of the values is out of range
+     */
+    public static long getDateTimeMillis(
+            int year, int monthOfYear, int dayOfMonth,
+            int hourOfDay, int minuteOfHour, int secondOfMinute, int millisOfSecond) {
+        verifyValueBounds("year", year, MIN_YEAR, MAX_YEAR);
+        verifyValueBounds("monthOfYear", monthOfYear, 1, 12);
+        verifyValueBounds("dayOfMonth", dayOfMonth, 1, getDaysInYearMonth(year, monthOfYear));
+        return getYearMonthDayMillis(year, monthOfYear, dayOfMonth)
+            + getMillisOfDay(hourOfDay, minuteOfHour, secondOfMinute, millisOfSecond);
+    }
+
+    /**
+     * Gets the milliseconds of the day of a time, validating its fields.
+     *
+     * @return the millis of the day, from 0 to 86399999
+     * @throws IllegalArgumentException if any of the fields is out of range
+     */
+    public static int getMillisOfDay(
+            int hourOfDay, int minuteOfHour, int secondOfMinute, int millisOfSecond) {
+        verifyValueBounds("hourOfDay", hourOfDay, 0, 23);
+        verifyValueBounds("minuteOfHour", minuteOfHour, 0, 59);
+        verifyValueBounds("secondOfMinute", secondOfMinute, 0, 59);
+        verifyValueBounds("millisOfSecond", millisOfSecond, 0, 999);
+
+        return hourOfDay * DateTimeConstants.MILLIS_PER_HOUR
+            + minuteOfHour * DateTimeConstants.MILLIS_PER_MINUTE
+            + secondOfMinute * DateTimeConstants.MILLIS_PER_SECOND
+            + millisOfSecond;
+    }
+
+    private static class YearInfo {
+        public final int iYear;
+        public final long iFirstDayMillis;
+        public final boolean iLeap;
+
+        YearInfo(int year, long firstDayMillis) {
+            iYear = year;
+            iFirstDayMillis = firstDayMillis;
+            iLeap = isLeapYear(year);
+        }
+    }
+
+    private static void verifyValueBounds(String fieldName, int value, int lowerBound, int upperBound) {
+        if ((value < lowerBound) || (value > upperBound)) {
+            throw new IllegalArgumentException("Value " + value + " for " + fieldName
+                + " must be in the range [" + lowerBound + ',' + upperBound + ']');
+        }
+    }
+}
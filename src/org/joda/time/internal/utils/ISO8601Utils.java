@@ -1,15 +1,25 @@
 package org.joda.time.internal.utils;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
 import java.util.*;
 import java.text.ParsePosition;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.FormatUtils;
+
 /**
  * Utilities methods for manipulating dates in iso8601 format. This is much much faster and GC friendly than using SimpleDateFormat so
  * highly suitable if you (un)serialize lots of date objects.
  * 
- * Supported parse format: [yyyy-MM-dd|yyyyMMdd][T(hh:mm[:ss[.sss]]|hhmm[ss[.sss]])]?[Z|[+-]hh:mm]]
+ * Supported parse format: [yyyy-MM-dd|yyyyMMdd][T(hh:mm[:ss[.s+]]|hhmm[ss[.s+]])]?[Z|[+-]hh:mm]]
+ * where the fraction of a second has any number of digits.
  * 
  * @see <a href="http://www.w3.org/TR/NOTE-datetime">this specification</a>
  */
@@ -38,14 +48,24 @@ public class ISO8601Utils
         return TIMEZONE_GMT;
     }
 
+    /**
+     * The longest text written by {@link #formatTo(char[], int, long, int)},
+     * for a negative nine digit year and an offset.
+     */
+    public static final int MAX_FORMAT_LENGTH = 35;
+
+    /** Scratch buffer for the formatters that don't write to a char array. */
+    private static final ThreadLocal<char[]> FORMAT_BUFFER = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[MAX_FORMAT_LENGTH];
+        }
+    };
+
     /** Transform Calendar to ISO 8601 string. */
     public static String fromCalendar(final Calendar calendar) {
-        Date date = calendar.getTime();
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-        sdf.setTimeZone(calendar.getTimeZone());
-        String formatted = sdf.format(date);
-        
-        return (formatted.substring(0, 26) + ":" + formatted.substring(26)).replace("+00:00", "Z");
+        long millis = calendar.getTimeInMillis();
+        return format(millis, calendar.getTimeZone().getOffset(millis));
     }
 
     /** Get current date and time formatted as ISO 8601 string. */
@@ -98,20 +118,20 @@ public class ISO8601Utils
         capacity += tz.getRawOffset() == 0 ? "Z".length() : "+hh:mm".length();
         StringBuilder formatted = new StringBuilder(capacity);
 
-        padInt(formatted, calendar.get(Calendar.YEAR), "yyyy".length());
+        FormatUtils.appendPaddedInteger(formatted, calendar.get(Calendar.YEAR), "yyyy".length());
         formatted.append('-');
-        padInt(formatted, calendar.get(Calendar.MONTH) + 1, "MM".length());
+        FormatUtils.appendPaddedInteger(formatted, calendar.get(Calendar.MONTH) + 1, "MM".length());
         formatted.append('-');
-        padInt(formatted, calendar.get(Calendar.DAY_OF_MONTH), "dd".length());
+        FormatUtils.appendPaddedInteger(formatted, calendar.get(Calendar.DAY_OF_MONTH), "dd".length());
         formatted.append('T');
-        padInt(formatted, calendar.get(Calendar.HOUR_OF_DAY), "hh".length());
+        FormatUtils.appendPaddedInteger(formatted, calendar.get(Calendar.HOUR_OF_DAY), "hh".length());
         formatted.append(':');
-        padInt(formatted, calendar.get(Calendar.MINUTE), "mm".length());
+        FormatUtils.appendPaddedInteger(formatted, calendar.get(Calendar.MINUTE), "mm".length());
         formatted.append(':');
-        padInt(formatted, calendar.get(Calendar.SECOND), "ss".length());
+        FormatUtils.appendPaddedInteger(formatted, calendar.get(Calendar.SECOND), "ss".length());
         if (millis) {
             formatted.append('.');
-            padInt(formatted, calendar.get(Calendar.MILLISECOND), "sss".length());
+            FormatUtils.appendPaddedInteger(formatted, calendar.get(Calendar.MILLISECOND), "sss".length());
         }
 
         int offset = tz.getOffset(calendar.getTimeInMillis());
@@ -119,9 +139,9 @@ public class ISO8601Utils
             int hours = Math.abs((offset / (60 * 1000)) / 60);
             int minutes = Math.abs((offset / (60 * 1000)) % 60);
             formatted.append(offset < 0 ? '-' : '+');
-            padInt(formatted, hours, "hh".length());
+            FormatUtils.appendPaddedInteger(formatted, hours, "hh".length());
             formatted.append(':');
-            padInt(formatted, minutes, "mm".length());
+            FormatUtils.appendPaddedInteger(formatted, minutes, "mm".length());
         } else {
             formatted.append('Z');
         }
@@ -129,6 +149,147 @@ public class ISO8601Utils
         return formatted.toString();
     }
 
+    /**
+     * Format an instant into 'yyyy-MM-ddThh:mm:ss.sss[Z|[+-]hh:mm]' with the
+     * given offset, as {@link #fromCalendar(Calendar)} does. The offset is
+     * printed in whole minutes, and as 'Z' when that is zero.
+     * 
+     * @param millis the instant, in milliseconds from 1970-01-01T00:00:00Z
+     * @param offset the offset from UTC to print the local time in
+     * @return the formatted instant
+     */
+    public static String format(long millis, int offset) {
+        char[] buffer = FORMAT_BUFFER.get();
+        int length = formatTo(buffer, 0, millis, offset);
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Append an instant formatted as in {@link #format(long, int)}.
+     * 
+     * @param buffer the buffer to append to
+     * @param millis the instant, in milliseconds from 1970-01-01T00:00:00Z
+     * @param offset the offset from UTC to print the local time in
+     */
+    public static void formatTo(StringBuilder buffer, long millis, int offset) {
+        char[] chars = FORMAT_BUFFER.get();
+        int length = formatTo(chars, 0, millis, offset);
+        buffer.append(chars, 0, length);
+    }
+
+    /**
+     * Append an instant formatted as in {@link #format(long, int)}.
+     * 
+     * @param out the appendable to append to
+     * @param millis the instant, in milliseconds from 1970-01-01T00:00:00Z
+     * @param offset the offset from UTC to print the local time in
+     * @throws IOException if the appendable throws it
+     */
+    public static void formatTo(Appendable out, long millis, int offset) throws IOException {
+        if (out instanceof StringBuilder) {
+            formatTo((StringBuilder) out, millis, offset);
+            return;
+        }
+        char[] chars = FORMAT_BUFFER.get();
+        int length = formatTo(chars, 0, millis, offset);
+        for (int i = 0; i < length; i++) {
+            out.append(chars[i]);
+        }
+    }
+
+    /**
+     * Write an instant formatted as in {@link #format(long, int)} into a
+     * byte array as ASCII, without creating a String or encoding chars.
+     * 
+     * @param buffer the array to write to
+     * @param position the index to start writing at
+     * @param millis the instant, in milliseconds from 1970-01-01T00:00:00Z
+     * @param offset the offset from UTC to print the local time in
+     * @return the number of bytes written
+     * @throws IndexOutOfBoundsException if the array is too small, in which
+     *  case nothing is written
+     */
+    public static int formatTo(byte[] buffer, int position, long millis, int offset) {
+        char[] chars = FORMAT_BUFFER.get();
+        int length = formatTo(chars, 0, millis, offset);
+        checkRange(buffer.length, position, length);
+        for (int i = 0; i < length; i++) {
+            buffer[position + i] = (byte) chars[i];
+        }
+        return length;
+    }
+
+    /**
+     * Write an instant formatted as in {@link #format(long, int)} into a
+     * buffer as ASCII, from its position, without creating a String or
+     * encoding chars. The position is advanced past the bytes written.
+     * 
+     * @param buffer the buffer to write to
+     * @param millis the instant, in milliseconds from 1970-01-01T00:00:00Z
+     * @param offset the offset from UTC to print the local time in
+     * @return the number of bytes written
+     * @throws java.nio.BufferOverflowException if the buffer has too little
+     *  room, in which case nothing is written
+     */
+    public static int formatTo(ByteBuffer buffer, long millis, int offset) {
+        char[] chars = FORMAT_BUFFER.get();
+        int length = formatTo(chars, 0, millis, offset);
+        if (buffer.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) chars[i]);
+        }
+        return length;
+    }
+
+    /**
+     * Write an instant formatted as in {@link #format(long, int)} into a
+     * char array. No objects are created.
+     * 
+     * @param buffer the array to write to, with room for {@link #MAX_FORMAT_LENGTH} chars
+     * @param position the index to start writing at
+     * @param millis the instant, in milliseconds from 1970-01-01T00:00:00Z
+     * @param offset the offset from UTC to print the local time in
+     * @return the index after the last char written
+     * @throws IndexOutOfBoundsException if the array is too small
+     */
+    public static int formatTo(char[] buffer, int position, long millis, int offset) {
+        long localMillis = millis + offset;
+        long epochDay = ChronologyUtils.getEpochDay(localMillis);
+        long date = ChronologyUtils.fromEpochDay(epochDay);
+        int millisOfDay = (int) (localMillis - epochDay * DateTimeConstants.MILLIS_PER_DAY);
+
+        int pos = FormatUtils.writePaddedInteger(buffer, position, ChronologyUtils.getPackedYear(date), 4);
+        buffer[pos++] = '-';
+        pos = FormatUtils.writePaddedInteger(buffer, pos, ChronologyUtils.getPackedMonth(date), 2);
+        buffer[pos++] = '-';
+        pos = FormatUtils.writePaddedInteger(buffer, pos, ChronologyUtils.getPackedDay(date), 2);
+        buffer[pos++] = 'T';
+        pos = FormatUtils.writePaddedInteger(buffer, pos, millisOfDay / DateTimeConstants.MILLIS_PER_HOUR, 2);
+        buffer[pos++] = ':';
+        pos = FormatUtils.writePaddedInteger(buffer, pos, (millisOfDay / DateTimeConstants.MILLIS_PER_MINUTE) % 60, 2);
+        buffer[pos++] = ':';
+        pos = FormatUtils.writePaddedInteger(buffer, pos, (millisOfDay / DateTimeConstants.MILLIS_PER_SECOND) % 60, 2);
+        buffer[pos++] = '.';
+        pos = FormatUtils.writePaddedInteger(buffer, pos, millisOfDay % DateTimeConstants.MILLIS_PER_SECOND, 3);
+
+        int minutes = offset / DateTimeConstants.MILLIS_PER_MINUTE;
+        if (minutes == 0) {
+            buffer[pos++] = 'Z';
+            return pos;
+        }
+        if (minutes < 0) {
+            buffer[pos++] = '-';
+            minutes = -minutes;
+        } else {
+            buffer[pos++] = '+';
+        }
+        pos = FormatUtils.writePaddedInteger(buffer, pos, minutes / 60, 2);
+        buffer[pos++] = ':';
+        return FormatUtils.writePaddedInteger(buffer, pos, minutes % 60, 2);
+    }
+
     /*
     /**********************************************************
     /* Parsing
@@ -140,7 +301,7 @@ public class ISO8601Utils
     		
     /**
      * Parse a date from ISO-8601 formatted string. It expects a format
-     * [yyyy-MM-dd|yyyyMMdd][T(hh:mm[:ss[.sss]]|hhmm[ss[.sss]])]?[Z|[+-]hh:mm]]
+     * [yyyy-MM-dd|yyyyMMdd][T(hh:mm[:ss[.s+]]|hhmm[ss[.s+]])]?[Z|[+-]hh:mm]]
      * 
      * @param date ISO string to parse in the appropriate format.
      * @param pos The position to start parsing from, updated to where parsing stopped.
@@ -148,177 +309,602 @@ public class ISO8601Utils
      * @throws ParseException if the date is not in the appropriate format
      */
     public static Calendar parse(String date, ParsePosition pos) throws ParseException {
-        Exception fail = null;
-        try {
-            int offset = pos.getIndex();
+        ParsedInstant result = new ParsedInstant();
+        parseInto(result, date, pos);
+        Calendar calendar = new GregorianCalendar(result.getZone().getTimeZone());
+        calendar.setTimeInMillis(result.getMillis());
+        return calendar;
+    }
 
-            // extract year
-            int year = parseInt(date, offset, offset += 4);
-            if (checkOffset(date, offset, '-')) {
-                offset += 1;
+    /**
+     * Parse a date from ISO-8601 formatted string to epoch millis and an
+     * offset, see {@link #parseInto(ParsedInstant, String, ParsePosition)}.
+     * 
+     * @param date ISO string to parse in the appropriate format.
+     * @return the parsed instant and offset
+     * @throws ParseException if the date is not in the appropriate format
+     */
+    public static ParsedInstant parseInstant(String date) throws ParseException {
+        ParsedInstant result = new ParsedInstant();
+        parseInto(result, date, new ParsePosition(0));
+        return result;
+    }
+
+    /**
+     * Parse a date from ISO-8601 formatted string into a result holder. It
+     * expects the format of {@link #parse(String, ParsePosition)}.
+     * <p>
+     * The instant is computed arithmetically in the proleptic Gregorian
+     * calendar. Fields out of range roll over, as a lenient Calendar does.
+     * A fraction of a second is truncated to milliseconds, and the first
+     * nine digits are kept, see {@link ParsedInstant#getNanoOfMilli()}.
+     * Without a zone indicator the default zone is used, resolving a local
+     * time in a DST gap or overlap as GregorianCalendar does.
+     * 
+     * @param result the holder to set, which can be reused between calls
+     * @param date ISO string to parse in the appropriate format.
+     * @param pos The position to start parsing from, updated to where parsing stopped.
+     * @throws ParseException if the date is not in the appropriate format
+     */
+    public static void parseInto(ParsedInstant result, String date, ParsePosition pos) throws ParseException {
+        int start = pos.getIndex();
+        int status = parseInto(result, date, start, date.length());
+        if (status < 0) {
+            throw parseError(date, start, date.length(), status);
+        }
+        pos.setIndex(status);
+    }
+
+    /**
+     * Parse a date from a range of ISO-8601 formatted characters, without
+     * creating a String.
+     * 
+     * @param text the characters to parse
+     * @param offset the index of the first character
+     * @param length the number of characters in the date
+     * @return the parsed instant in milliseconds from 1970-01-01T00:00:00Z
+     * @throws ParseException if the date is not in the appropriate format
+     * @throws IndexOutOfBoundsException if the range is outside the text
+     */
+    public static long parseMillis(CharSequence text, int offset, int length) throws ParseException {
+        checkRange(text.length(), offset, length);
+        return parseMillis(text, offset, offset + length, new ParsedInstant());
+    }
+
+    /**
+     * Parse a date from a range of ISO-8601 formatted characters, without
+     * creating a String.
+     * 
+     * @param text the characters to parse
+     * @param offset the index of the first character
+     * @param length the number of characters in the date
+     * @return the parsed instant in milliseconds from 1970-01-01T00:00:00Z
+     * @throws ParseException if the date is not in the appropriate format
+     * @throws IndexOutOfBoundsException if the range is outside the array
+     */
+    public static long parseMillis(char[] text, int offset, int length) throws ParseException {
+        checkRange(text.length, offset, length);
+        return parseMillis(CharBuffer.wrap(text), offset, offset + length, new ParsedInstant());
+    }
+
+    /**
+     * Parse a date from a range of ISO-8601 formatted ASCII bytes, without
+     * decoding them to a String.
+     * 
+     * @param bytes the ASCII bytes to parse
+     * @param offset the index of the first byte
+     * @param length the number of bytes in the date
+     * @return the parsed instant in milliseconds from 1970-01-01T00:00:00Z
+     * @throws ParseException if the date is not in the appropriate format
+     * @throws IndexOutOfBoundsException if the range is outside the array
+     */
+    public static long parseMillis(byte[] bytes, int offset, int length) throws ParseException {
+        checkRange(bytes.length, offset, length);
+        if (length >= CANONICAL_LENGTH) {
+            long millis = parseCanonical(readLong(bytes, offset), readLong(bytes, offset + 8), readLong(bytes, offset + 16));
+            if (millis != NOT_CANONICAL) {
+                return millis;
+            }
+        }
+        return parseMillis(new AsciiSequence(bytes, 0, bytes.length), offset, offset + length, new ParsedInstant());
+    }
+
+    /**
+     * Parse a date from a range of ISO-8601 formatted ASCII bytes, without
+     * decoding them to a String. The range is given by absolute indices and
+     * the position and limit of the buffer are not changed.
+     * 
+     * @param buffer the buffer holding the ASCII bytes to parse
+     * @param offset the index of the first byte
+     * @param length the number of bytes in the date
+     * @return the parsed instant in milliseconds from 1970-01-01T00:00:00Z
+     * @throws ParseException if the date is not in the appropriate format
+     * @throws IndexOutOfBoundsException if the range is outside the buffer limit
+     */
+    public static long parseMillis(ByteBuffer buffer, int offset, int length) throws ParseException {
+        checkRange(buffer.limit(), offset, length);
+        if (length >= CANONICAL_LENGTH) {
+            long millis = parseCanonical(buffer, offset);
+            if (millis != NOT_CANONICAL) {
+                return millis;
             }
+        }
+        return parseMillis(asciiSequence(buffer), offset, offset + length, new ParsedInstant());
+    }
 
-            // extract month
-            int month = parseInt(date, offset, offset += 2);
-            if (checkOffset(date, offset, '-')) {
-                offset += 1;
+    /**
+     * Parse a date from a range of ISO-8601 formatted ASCII bytes without
+     * throwing for invalid text, see {@link #tryParse(ParsedInstant, String)}.
+     * The position and limit of the buffer are not changed.
+     * 
+     * @param result the holder to set, which can be reused between calls
+     * @param buffer the buffer holding the ASCII bytes to parse
+     * @param offset the index of the first byte
+     * @param length the number of bytes in the date
+     * @return true if the date was parsed, false if it is invalid
+     * @throws IndexOutOfBoundsException if the range is outside the buffer limit
+     */
+    public static boolean tryParse(ParsedInstant result, ByteBuffer buffer, int offset, int length) {
+        checkRange(buffer.limit(), offset, length);
+        if (length >= CANONICAL_LENGTH) {
+            long millis = parseCanonical(buffer, offset);
+            if (millis != NOT_CANONICAL) {
+                result.setOffset(millis, 0, 'Z');
+                result.setNanoOfMilli(0);
+                return true;
             }
+        }
+        return (parseInto(result, asciiSequence(buffer), offset, offset + length) >= 0);
+    }
 
-            // extract day
-            int day = parseInt(date, offset, offset += 2);
-            // default time value
-            int hour = 0;
-            int minutes = 0;
-            int seconds = 0;
-            int milliseconds = 0; // always use 0 otherwise returned date will include millis of current time
-            if (checkOffset(date, offset, 'T')) {
-
-                // extract hours, minutes, seconds and milliseconds
-                hour = parseInt(date, offset += 1, offset += 2);
-                if (checkOffset(date, offset, ':')) {
-                    offset += 1;
-                }
+    private static AsciiSequence asciiSequence(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new AsciiSequence(buffer.array(), buffer.arrayOffset(), buffer.limit());
+        }
+        return new AsciiSequence(buffer, 0, buffer.limit());
+    }
 
-                minutes = parseInt(date, offset, offset += 2);
-                if (checkOffset(date, offset, ':')) {
-                    offset += 1;
-                }
-                // second and milliseconds can be optional
-                if (date.length() > offset) {
-                    char c = date.charAt(offset);
-                    if (c != 'Z' && c != '+' && c != '-') {
-                        seconds = parseInt(date, offset, offset += 2);
-                        // milliseconds can be optional in the format
-                        if (checkOffset(date, offset, '.')) {
-                            milliseconds = parseInt(date, offset += 1, offset += 3);
+    private static long parseMillis(CharSequence text, int start, int end, ParsedInstant result) throws ParseException {
+        int status = parseInto(result, text, start, end);
+        if (status < 0) {
+            throw parseError(text, start, end, status);
+        }
+        return result.getMillis();
+    }
+
+    /**
+     * Parse a date from ISO-8601 formatted string without throwing for
+     * invalid text. Trailing text after the date is ignored, as by
+     * {@link #parse(String)}.
+     * <p>
+     * Use this rather than catching exceptions when invalid input is
+     * common, as building and filling in a <code>ParseException</code>
+     * costs far more than the parse.
+     * 
+     * @param result the holder to set, which can be reused between calls
+     * @param date ISO string to parse, null is invalid
+     * @return true if the date was parsed, false if it is invalid
+     */
+    public static boolean tryParse(ParsedInstant result, String date) {
+        return (date != null && parseInto(result, date, 0, date.length()) >= 0);
+    }
+
+    /**
+     * Parse a date from a range of ISO-8601 formatted characters without
+     * throwing for invalid text, see {@link #tryParse(ParsedInstant, String)}.
+     * 
+     * @param result the holder to set, which can be reused between calls
+     * @param text the characters to parse
+     * @param offset the index of the first character
+     * @param length the number of characters in the date
+     * @return true if the date was parsed, false if it is invalid
+     * @throws IndexOutOfBoundsException if the range is outside the text
+     */
+    public static boolean tryParse(ParsedInstant result, CharSequence text, int offset, int length) {
+        checkRange(text.length(), offset, length);
+        return (parseInto(result, text, offset, offset + length) >= 0);
+    }
+
+    static void checkRange(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length + ") out of bounds for length " + size);
+        }
+    }
+
+    /**
+     * Parse the characters between two indices, the end index acting as
+     * the end of the text. Invalid text is reported by the return value
+     * rather than an exception, so failing is as cheap as succeeding.
+     * 
+     * @return the index where parsing stopped, or the complement of the
+     *  index of the first invalid character if the text is invalid
+     */
+    static int parseInto(ParsedInstant result, CharSequence date, int start, int end) {
+        if (end - start >= CANONICAL_LENGTH) {
+            long millis = parseCanonical(packAscii(date, start), packAscii(date, start + 8), packAscii(date, start + 16));
+            if (millis != NOT_CANONICAL) {
+                result.setOffset(millis, 0, 'Z');
+                result.setNanoOfMilli(0);
+                return start + CANONICAL_LENGTH;
+            }
+        }
+        int offset = start;
+
+        // extract year
+        int year = parseInt(date, end, offset, offset += 4);
+        if (year < 0) {
+            return year;
+        }
+        if (checkOffset(date, end, offset, '-')) {
+            offset += 1;
+        }
+
+        // extract month
+        int month = parseInt(date, end, offset, offset += 2);
+        if (month < 0) {
+            return month;
+        }
+        if (checkOffset(date, end, offset, '-')) {
+            offset += 1;
+        }
+
+        // extract day
+        int day = parseInt(date, end, offset, offset += 2);
+        if (day < 0) {
+            return day;
+        }
+        // default time value
+        int hour = 0;
+        int minutes = 0;
+        int seconds = 0;
+        int milliseconds = 0;
+        int nanoOfMilli = 0;
+        if (checkOffset(date, end, offset, 'T')) {
+
+            // extract hours, minutes, seconds and milliseconds
+            hour = parseInt(date, end, offset += 1, offset += 2);
+            if (hour < 0) {
+                return hour;
+            }
+            if (checkOffset(date, end, offset, ':')) {
+                offset += 1;
+            }
+
+            minutes = parseInt(date, end, offset, offset += 2);
+            if (minutes < 0) {
+                return minutes;
+            }
+            if (checkOffset(date, end, offset, ':')) {
+                offset += 1;
+            }
+            // second and milliseconds can be optional
+            if (end > offset) {
+                char c = date.charAt(offset);
+                if (c != 'Z' && c != '+' && c != '-') {
+                    seconds = parseInt(date, end, offset, offset += 2);
+                    if (seconds < 0) {
+                        return seconds;
+                    }
+                    // the fraction can be optional in the format, and has any precision
+                    if (checkOffset(date, end, offset, '.')) {
+                        int fractionStart = offset += 1;
+                        int nanos = 0;
+                        while (offset < end) {
+                            int digit = Character.digit(date.charAt(offset), 10);
+                            if (digit < 0) {
+                                break;
+                            }
+                            // digits past nanoseconds are truncated
+                            if (offset - fractionStart < NANOS_PER_DIGIT.length) {
+                                nanos += digit * NANOS_PER_DIGIT[offset - fractionStart];
+                            }
+                            offset++;
+                        }
+                        if (offset == fractionStart) {
+                            return ~offset;
                         }
+                        milliseconds = nanos / NANOS_PER_MILLI;
+                        nanoOfMilli = nanos % NANOS_PER_MILLI;
                     }
                 }
             }
+        }
 
-            // extract timezone
-            String timezoneId;
-            if (date.length() <= offset) {
-                //No time zone indicator, using default
-            	timezoneId = TimeZone.getDefault().getID();
-            } else {
-	            char timezoneIndicator = date.charAt(offset);
-	            if (timezoneIndicator == '+' || timezoneIndicator == '-') {
-	                String timezoneOffset = date.substring(offset);
-	                timezoneId = GMT_ID + timezoneOffset;
-	                offset += timezoneOffset.length();
-	            } else if (timezoneIndicator == 'Z') {
-	                timezoneId = "UTC";
-	                offset += 1;
-	            } else {
-	                throw new IndexOutOfBoundsException("Invalid time zone indicator " + timezoneIndicator);
-	            }
-            }
+        long localMillis = toLocalMillis(year, month, day, hour, minutes, seconds, milliseconds);
+        result.setNanoOfMilli(nanoOfMilli);
 
-            TimeZone timezone = TimeZone.getTimeZone(timezoneId);
-            String act = timezone.getID();
-            if (!act.equals(timezoneId)) {
-                /* 22-Jan-2015, tatu: Looks like canonical version has colons, but we may be given
-                 *    one without. If so, don't sweat.
-                 *   Yes, very inefficient. Hopefully not hit often.
-                 *   If it becomes a perf problem, add 'loose' comparison instead.
-                 */
-                String cleaned = act.replace(":", "");
-                if (!cleaned.equals(timezoneId)) {
-                    throw new IndexOutOfBoundsException("Mismatching time zone indicator: "+timezoneId+" given, resolves to "
-                            +timezone.getID());
-                }
+        // extract timezone
+        if (end <= offset) {
+            //No time zone indicator, using default
+            DateTimeZone zone = DateTimeZone.getDefault();
+            result.setDefaultZone(zone.convertLocalToUTC(localMillis, false), zone);
+            return offset;
+        }
+        char timezoneIndicator = date.charAt(offset);
+        if (timezoneIndicator == '+' || timezoneIndicator == '-') {
+            int timezoneOffset = parseTimeZoneOffset(date, offset, end);
+            if (timezoneOffset == INVALID_OFFSET) {
+                return ~offset;
             }
+            result.setOffset(localMillis - timezoneOffset, timezoneOffset, timezoneIndicator);
+            return end;
+        } else if (timezoneIndicator == 'Z') {
+            result.setOffset(localMillis, 0, 'Z');
+            return offset + 1;
+        }
+        return ~offset;
+    }
+
+    private static final int NANOS_PER_MILLI = 1000000;
 
-            Calendar calendar = new GregorianCalendar(timezone);
-            calendar.set(Calendar.YEAR, year);
-            calendar.set(Calendar.MONTH, month - 1);
-            calendar.set(Calendar.DAY_OF_MONTH, day);
-            calendar.set(Calendar.HOUR_OF_DAY, hour);
-            calendar.set(Calendar.MINUTE, minutes);
-            calendar.set(Calendar.SECOND, seconds);
-            calendar.set(Calendar.MILLISECOND, milliseconds);
-            calendar.getTime();
-            pos.setIndex(offset);
-            return calendar;
-            // If we get a ParseException it'll already have the right message/offset.
-            // Other exception types can convert here.
-        } catch (IndexOutOfBoundsException e) {
-            fail = e;
-        } catch (NumberFormatException e) {
-            fail = e;
-        } catch (IllegalArgumentException e) {
-            fail = e;
-        }
-        String input = (date == null) ? null : ('"' + date + "'");
-        String msg = fail.getMessage();
-        if (msg == null || msg.isEmpty()) {
-            msg = "("+fail.getClass().getName()+")";
-        }
-        ParseException ex = new ParseException("Failed to parse date [" + input + "]: " + msg, pos.getIndex());
-        ex.initCause(fail);
-        throw ex;
+    /** The value in nanoseconds of a digit at each place of a fraction of a second. */
+    private static final int[] NANOS_PER_DIGIT = {
+        100000000, 10000000, 1000000, 100000, 10000, 1000, 100, 10, 1
+    };
+
+    /**
+     * Creates the exception for text the parser rejected.
+     * 
+     * @param status the complement of the index of the first invalid character
+     */
+    static ParseException parseError(CharSequence date, int start, int end, int status) {
+        int index = ~status;
+        String msg;
+        if (index < end) {
+            msg = "Unexpected character '" + date.charAt(index) + "' at index " + index;
+        } else {
+            msg = "Unexpected end of date at index " + index;
+        }
+        String input = '"' + date.subSequence(start, end).toString() + "'";
+        return new ParseException("Failed to parse date [" + input + "]: " + msg, start);
     }
 
+    /**
+     * Computes local millis from the parsed fields. Months out of range roll
+     * over into the year, and the other fields into the next larger field,
+     * as a lenient Calendar does.
+     */
+    private static long toLocalMillis(int year, int month, int day, int hour, int minutes, int seconds, int milliseconds) {
+        int years = (month > 0 ? (month - 1) / 12 : (month - 12) / 12);
+        return ChronologyUtils.toEpochDay(year + years, month - years * 12, day) * DateTimeConstants.MILLIS_PER_DAY
+                + (long) hour * DateTimeConstants.MILLIS_PER_HOUR
+                + minutes * DateTimeConstants.MILLIS_PER_MINUTE
+                + seconds * DateTimeConstants.MILLIS_PER_SECOND
+                + milliseconds;
+    }
+
+    /*
+    /**********************************************************
+    /* Fixed-width fast path
+    /**********************************************************
+     */
+
+    /**
+     * Length of the canonical <code>yyyy-MM-ddTHH:mm:ss.SSSZ</code> form,
+     * which is read as three big-endian longs of eight ASCII characters:
+     * <code>yyyy-MM-</code>, <code>ddTHH:mm</code> and <code>:ss.SSSZ</code>.
+     */
+    private static final int CANONICAL_LENGTH = 24;
+
+    /** Returned by {@link #parseCanonical} when the text is not canonical. */
+    private static final long NOT_CANONICAL = Long.MIN_VALUE;
+
+    // Each word is XORed with its template, which turns an ASCII digit
+    // into its value 0-9 and a matching separator into zero. The value mask
+    // then has 0xF0 over digits and 0xFF over separators, so any bits left
+    // under it mean a character was wrong. Adding 6 to each digit carries
+    // into the high nibble only for the values 10 to 15.
+    private static final long TEMPLATE_0 = 0x303030302D30302DL;  // "0000-00-"
+    private static final long VALUE_MASK_0 = 0xF0F0F0F0FFF0F0FFL;
+    private static final long DIGIT_SIX_0 = 0x0606060600060600L;
+    private static final long DIGIT_HIGH_0 = 0xF0F0F0F000F0F000L;
+    private static final long TEMPLATE_1 = 0x30305430303A3030L;  // "00T00:00"
+    private static final long VALUE_MASK_1 = 0xF0F0FFF0F0FFF0F0L;
+    private static final long DIGIT_SIX_1 = 0x0606000606000606L;
+    private static final long DIGIT_HIGH_1 = 0xF0F000F0F000F0F0L;
+    private static final long TEMPLATE_2 = 0x3A30302E3030305AL;  // ":00.000Z"
+    private static final long VALUE_MASK_2 = 0xFFF0F0FFF0F0F0FFL;
+    private static final long DIGIT_SIX_2 = 0x0006060006060600L;
+    private static final long DIGIT_HIGH_2 = 0x00F0F000F0F0F000L;
+
+    /**
+     * Validates and decodes the canonical form, eight characters at a time.
+     * 
+     * @param w0 characters 0 to 7, big-endian
+     * @param w1 characters 8 to 15, big-endian
+     * @param w2 characters 16 to 23, big-endian
+     * @return the instant, or {@link #NOT_CANONICAL} if the text has another form
+     */
+    private static long parseCanonical(long w0, long w1, long w2) {
+        long d0 = w0 ^ TEMPLATE_0;
+        long d1 = w1 ^ TEMPLATE_1;
+        long d2 = w2 ^ TEMPLATE_2;
+        if (((d0 & VALUE_MASK_0) | (d1 & VALUE_MASK_1) | (d2 & VALUE_MASK_2)) != 0
+                || (((d0 + DIGIT_SIX_0) & DIGIT_HIGH_0) | ((d1 + DIGIT_SIX_1) & DIGIT_HIGH_1)
+                        | ((d2 + DIGIT_SIX_2) & DIGIT_HIGH_2)) != 0) {
+            return NOT_CANONICAL;
+        }
+        // each byte now holds one digit, so adding ten times each byte to the
+        // byte after it yields every two-digit value without carries
+        long p0 = d0 * 10 + (d0 << 8);
+        long p1 = d1 * 10 + (d1 << 8);
+        long p2 = d2 * 10 + (d2 << 8);
+        int year = pair(p0, 0) * 100 + pair(p0, 2);
+        int month = pair(p0, 5);
+        int day = pair(p1, 0);
+        int hour = pair(p1, 3);
+        int minutes = pair(p1, 6);
+        int seconds = pair(p2, 1);
+        int milliseconds = ((int) (d2 >>> 24) & 0xFF) * 100 + pair(p2, 5);
+        return toLocalMillis(year, month, day, hour, minutes, seconds, milliseconds);
+    }
+
+    /**
+     * Reads the canonical form from a buffer, in any byte order.
+     */
+    private static long parseCanonical(ByteBuffer buffer, int index) {
+        long w0 = buffer.getLong(index);
+        long w1 = buffer.getLong(index + 8);
+        long w2 = buffer.getLong(index + 16);
+        if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+            w0 = Long.reverseBytes(w0);
+            w1 = Long.reverseBytes(w1);
+            w2 = Long.reverseBytes(w2);
+        }
+        return parseCanonical(w0, w1, w2);
+    }
+
+    private static int pair(long pairs, int index) {
+        return (int) (pairs >>> (56 - 8 * index)) & 0xFF;
+    }
+
+    private static long readLong(byte[] bytes, int index) {
+        return ((long) bytes[index] << 56)
+                | ((long) (bytes[index + 1] & 0xFF) << 48)
+                | ((long) (bytes[index + 2] & 0xFF) << 40)
+                | ((long) (bytes[index + 3] & 0xFF) << 32)
+                | ((long) (bytes[index + 4] & 0xFF) << 24)
+                | ((bytes[index + 5] & 0xFF) << 16)
+                | ((bytes[index + 6] & 0xFF) << 8)
+                | (bytes[index + 7] & 0xFF);
+    }
+
+    /**
+     * Packs eight characters into a long, big-endian. Any character outside
+     * ASCII gives -1, which never matches a template.
+     */
+    private static long packAscii(CharSequence text, int index) {
+        long word = 0;
+        int bits = 0;
+        for (int i = index, end = index + 8; i < end; i++) {
+            char c = text.charAt(i);
+            bits |= c;
+            word = (word << 8) | c;
+        }
+        return ((bits & ~0x7F) == 0 ? word : -1L);
+    }
+
+    /**
+     * Parse a time zone offset suffix, either <code>+hh:mm</code> or
+     * <code>+hhmm</code>, running to the end of the text. The offset is
+     * computed directly, rather than building a "GMT" ID for the JDK to
+     * look up.
+     * 
+     * @param value the text to parse
+     * @param offset the offset of the sign character
+     * @param end the end of the text
+     * @return the offset in milliseconds, or {@link #INVALID_OFFSET} if the
+     *  suffix is not a valid offset
+     */
+    private static int parseTimeZoneOffset(CharSequence value, int offset, int end) {
+        int length = end - offset;
+        int minutesStart = offset + 3;
+        if (length == 6 && value.charAt(minutesStart) == ':') {
+            minutesStart += 1;
+        } else if (length != 5) {
+            return INVALID_OFFSET;
+        }
+        int hours = parseInt(value, end, offset + 1, offset + 3);
+        int minutes = parseInt(value, end, minutesStart, minutesStart + 2);
+        if (hours < 0 || minutes < 0 || hours > 23 || minutes > 59) {
+            return INVALID_OFFSET;
+        }
+        int millis = (hours * 60 + minutes) * DateTimeConstants.MILLIS_PER_MINUTE;
+        return (value.charAt(offset) == '-' ? -millis : millis);
+    }
+
+    /** Returned by {@link #parseTimeZoneOffset} for an invalid offset. */
+    private static final int INVALID_OFFSET = Integer.MIN_VALUE;
+
     /**
      * Check if the expected character exist at the given offset in the value.
      * 
-     * @param value the string to check at the specified offset
+     * @param value the text to check at the specified offset
+     * @param end the end of the text
      * @param offset the offset to look for the expected character
      * @param expected the expected character
      * @return true if the expected character exist at the given offset
      */
-    private static boolean checkOffset(String value, int offset, char expected) {
-        return (offset < value.length()) && (value.charAt(offset) == expected);
+    private static boolean checkOffset(CharSequence value, int end, int offset, char expected) {
+        return (offset < end) && (value.charAt(offset) == expected);
     }
 
     /**
      * Parse an integer located between 2 given offsets in a string
      * 
-     * @param value the string to parse
+     * @param value the text to parse
+     * @param end the end of the text
      * @param beginIndex the start index for the integer in the string
      * @param endIndex the end index for the integer in the string
-     * @return the int
-     * @throws NumberFormatException if the value is not a number
+     * @return the int, or the complement of the index of the first character
+     *  that is not a digit, or of the end of the text if it is too short
      */
-    private static int parseInt(String value, int beginIndex, int endIndex) throws NumberFormatException {
-        if (beginIndex < 0 || endIndex > value.length() || beginIndex > endIndex) {
-            throw new NumberFormatException(value);
-        }
-        // use same logic as in Integer.parseInt() but less generic we're not supporting negative values
-        int i = beginIndex;
+    private static int parseInt(CharSequence value, int end, int beginIndex, int endIndex) {
+        int limit = Math.min(endIndex, end);
         int result = 0;
-        int digit;
-        if (i < endIndex) {
-            digit = Character.digit(value.charAt(i++), 10);
+        for (int i = beginIndex; i < limit; i++) {
+            int digit = Character.digit(value.charAt(i), 10);
             if (digit < 0) {
-                throw new NumberFormatException("Invalid number: " + value);
+                return ~i;
             }
-            result = -digit;
+            result = result * 10 + digit;
         }
-        while (i < endIndex) {
-            digit = Character.digit(value.charAt(i++), 10);
-            if (digit < 0) {
-                throw new NumberFormatException("Invalid number: " + value);
-            }
-            result *= 10;
-            result -= digit;
-        }
-        return -result;
+        return (endIndex > end ? ~end : result);
     }
 
     /**
-     * Zero pad a number to a specified length
-     * 
-     * @param buffer buffer to use for padding
-     * @param value the integer value to pad if necessary.
-     * @param length the length of the string we should zero pad
+     * A view of ASCII bytes as characters, so the parser can read a byte
+     * array or buffer in place.
      */
-    private static void padInt(StringBuilder buffer, int value, int length) {
-        String strValue = Integer.toString(value);
-        for (int i = length - strValue.length(); i > 0; i--) {
-            buffer.append('0');
+    private static final class AsciiSequence implements CharSequence {
+
+        private final byte[] mBytes;
+        private final ByteBuffer mBuffer;
+        private final int mOffset;
+        private final int mLength;
+
+        AsciiSequence(byte[] bytes, int offset, int length) {
+            mBytes = bytes;
+            mBuffer = null;
+            mOffset = offset;
+            mLength = length;
+        }
+
+        AsciiSequence(ByteBuffer buffer, int offset, int length) {
+            mBytes = null;
+            mBuffer = buffer;
+            mOffset = offset;
+            mLength = length;
+        }
+
+        public int length() {
+            return mLength;
+        }
+
+        public char charAt(int index) {
+            if (index < 0 || index >= mLength) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + mLength);
+            }
+            byte b = (mBytes != null ? mBytes[mOffset + index] : mBuffer.get(mOffset + index));
+            return (char) (b & 0xFF);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || start > end || end > mLength) {
+                throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + mLength);
+            }
+            if (mBytes != null) {
+                return new AsciiSequence(mBytes, mOffset + start, end - start);
+            }
+            return new AsciiSequence(mBuffer, mOffset + start, end - start);
+        }
+
+        public String toString() {
+            char[] chars = new char[mLength];
+            for (int i = 0; i < mLength; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
         }
-        buffer.append(strValue);
     }
 }
@@ -0,0 +1,199 @@
+package org.joda.time.internal.utils;
+
+import java.text.ParseException;
+import java.util.TimeZone;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * A bounded cache of ISO8601 parse results, keyed by the parsed text.
+ * <p>
+ * This suits feeds that repeat the same timestamp many times in a row. The
+ * text is hashed and compared where it lies, so a hit with an offset
+ * allocates nothing.
+ * The cache is direct-mapped: each text has a single slot, and a miss
+ * replaces whatever the slot held. Entries are immutable, so the cache is
+ * thread-safe without locking. The hit and miss counts are statistics, and
+ * are incremented without synchronization, so threads sharing the cache
+ * may lose some increments.
+ * <p>
+ * A date without a zone indicator depends on the default zone, so its
+ * entry only counts as a hit while the default zone has the same ID. Only
+ * the ID of the JDK default time zone is compared, without looking up the
+ * zone for it.
+ */
+public final class ParseCache {
+
+    private final Entry[] mEntries;
+    private final int mMask;
+    private long mHits;
+    private long mMisses;
+
+    /**
+     * Creates a cache.
+     *
+     * @param size  the number of entries, rounded up to a power of two
+     * @throws IllegalArgumentException if the size is not between 1 and 2^30
+     */
+    public ParseCache(int size) {
+        if (size < 1 || size > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid cache size: " + size);
+        }
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        mEntries = new Entry[capacity];
+        mMask = capacity - 1;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the size, a power of two
+     */
+    public int getSize() {
+        return mEntries.length;
+    }
+
+    /**
+     * Gets the number of parses answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return mHits;
+    }
+
+    /**
+     * Gets the number of parses of text not in the cache, valid or not.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return mMisses;
+    }
+
+    /**
+     * Parses a date, see {@link ISO8601Utils#parseInstant(String)}.
+     *
+     * @param result  the holder to set
+     * @param text  the text to parse
+     * @throws ParseException if the date is not in the appropriate format
+     */
+    public void parseInto(ParsedInstant result, String text) throws ParseException {
+        parseInto(result, text, 0, text.length());
+    }
+
+    /**
+     * Parses a date from a range of characters, see
+     * {@link ISO8601Utils#parseMillis(CharSequence, int, int)}.
+     *
+     * @param result  the holder to set
+     * @param text  the characters to parse
+     * @param offset  the index of the first character
+     * @param length  the number of characters in the date
+     * @throws ParseException if the date is not in the appropriate format
+     * @throws IndexOutOfBoundsException if the range is outside the text
+     */
+    public void parseInto(ParsedInstant result, CharSequence text, int offset, int length) throws ParseException {
+        ISO8601Utils.checkRange(text.length(), offset, length);
+        int status = parse(result, text, offset, offset + length);
+        if (status < 0) {
+            throw ISO8601Utils.parseError(text, offset, offset + length, status);
+        }
+    }
+
+    /**
+     * Parses a date without throwing for invalid text, see
+     * {@link ISO8601Utils#tryParse(ParsedInstant, String)}.
+     *
+     * @param result  the holder to set
+     * @param text  the text to parse, null is invalid
+     * @return true if the date was parsed, false if it is invalid
+     */
+    public boolean tryParse(ParsedInstant result, String text) {
+        return (text != null && parse(result, text, 0, text.length()) >= 0);
+    }
+
+    /**
+     * Parses a date from a range of characters without throwing for invalid
+     * text, see {@link ISO8601Utils#tryParse(ParsedInstant, CharSequence, int, int)}.
+     *
+     * @param result  the holder to set
+     * @param text  the characters to parse
+     * @param offset  the index of the first character
+     * @param length  the number of characters in the date
+     * @return true if the date was parsed, false if it is invalid
+     * @throws IndexOutOfBoundsException if the range is outside the text
+     */
+    public boolean tryParse(ParsedInstant result, CharSequence text, int offset, int length) {
+        ISO8601Utils.checkRange(text.length(), offset, length);
+        return (parse(result, text, offset, offset + length) >= 0);
+    }
+
+    /**
+     * Parses the characters between two indices through the cache.
+     *
+     * @return the status from {@link ISO8601Utils#parseInto(ParsedInstant, CharSequence, int, int)}
+     */
+    private int parse(ParsedInstant result, CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        int index = (hash ^ (hash >>> 16)) & mMask;
+        Entry entry = mEntries[index];
+        if (entry != null && entry.matches(text, start, end)
+                && (entry.mResult.hasOffset() || isDefaultZone(entry.mResult.getZone()))) {
+            mHits++;
+            result.setFrom(entry.mResult);
+            return entry.mStatus + start;
+        }
+        mMisses++;
+        int status = ISO8601Utils.parseInto(result, text, start, end);
+        if (status >= 0) {
+            mEntries[index] = new Entry(text, start, end, status - start, result);
+        }
+        return status;
+    }
+
+    /**
+     * Checks whether a zone is still the default, comparing IDs only.
+     */
+    private static boolean isDefaultZone(DateTimeZone zone) {
+        return zone.getID().equals(TimeZone.getDefault().getID());
+    }
+
+    /**
+     * A parsed text and its result.
+     */
+    private static final class Entry {
+        private final char[] mText;
+        /** Where parsing stopped, relative to the start of the text. */
+        private final int mStatus;
+        private final ParsedInstant mResult = new ParsedInstant();
+
+        Entry(CharSequence text, int start, int end, int status, ParsedInstant result) {
+            mText = new char[end - start];
+            for (int i = start; i < end; i++) {
+                mText[i - start] = text.charAt(i);
+            }
+            mStatus = status;
+            mResult.setFrom(result);
+        }
+
+        boolean matches(CharSequence text, int start, int end) {
+            if (end - start != mText.length) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (text.charAt(i) != mText[i - start]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
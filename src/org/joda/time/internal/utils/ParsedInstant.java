@@ -0,0 +1,113 @@
+package org.joda.time.internal.utils;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * The result of parsing an ISO8601 date-time: the instant in epoch millis
+ * and the offset it was written with.
+ * <p>
+ * Instances are mutable and not thread-safe. A caller parsing many values
+ * can reuse one instance, see
+ * {@link ISO8601Utils#parseInto(ParsedInstant, String, java.text.ParsePosition)}.
+ */
+public final class ParsedInstant {
+
+    private long mMillis;
+    /** The fraction of a second beyond millisecond precision, 0 to 999999. */
+    private int mNanoOfMilli;
+    private int mOffset;
+    /** 'Z', '+' or '-' as written, or 0 if there was no zone indicator. */
+    private char mZoneIndicator;
+    /** The default zone used when there was no zone indicator. */
+    private DateTimeZone mDefaultZone;
+
+    public ParsedInstant() {
+    }
+
+    /**
+     * Gets the parsed instant.
+     *
+     * @return milliseconds from 1970-01-01T00:00:00Z
+     */
+    public long getMillis() {
+        return mMillis;
+    }
+
+    /**
+     * Gets the part of the fraction of a second that was truncated from
+     * the millis. Fractions are parsed to nanosecond precision, so for
+     * <code>12:00:00.123456789</code> this is 456789.
+     *
+     * @return the nanoseconds after {@link #getMillis()}, from 0 to 999999
+     */
+    public int getNanoOfMilli() {
+        return mNanoOfMilli;
+    }
+
+    /**
+     * Gets the offset of the local time that was parsed. Without a zone
+     * indicator this is the offset of the default zone at the instant.
+     *
+     * @return the offset from UTC in milliseconds
+     */
+    public int getOffset() {
+        return mOffset;
+    }
+
+    /**
+     * Checks whether the text had a zone indicator, 'Z' or an offset.
+     *
+     * @return true if the offset was parsed rather than taken from the default zone
+     */
+    public boolean hasOffset() {
+        return mZoneIndicator != 0;
+    }
+
+    /**
+     * Gets the zone the text was written in: UTC for 'Z', a fixed offset
+     * zone for an offset, or the default zone if there was neither.
+     *
+     * @return the zone, never null
+     */
+    public DateTimeZone getZone() {
+        switch (mZoneIndicator) {
+            case 0:
+                return mDefaultZone;
+            case 'Z':
+                return DateTimeZone.UTC;
+            default:
+                if (mOffset == 0) {
+                    // keep the signed zero IDs the JDK gives these offsets
+                    return DateTimeZone.forID(mZoneIndicator == '-' ? "GMT-00:00" : "GMT+00:00");
+                }
+                return DateTimeZone.forOffsetMillis(mOffset);
+        }
+    }
+
+    void setFrom(ParsedInstant other) {
+        mMillis = other.mMillis;
+        mNanoOfMilli = other.mNanoOfMilli;
+        mOffset = other.mOffset;
+        mZoneIndicator = other.mZoneIndicator;
+        mDefaultZone = other.mDefaultZone;
+    }
+
+    void setOffset(long millis, int offset, char zoneIndicator) {
+        mMillis = millis;
+        mOffset = offset;
+        mZoneIndicator = zoneIndicator;
+        mDefaultZone = null;
+    }
+
+    void setNanoOfMilli(int nanoOfMilli) {
+        mNanoOfMilli = nanoOfMilli;
+    }
+
+    void setDefaultZone(long millis, DateTimeZone zone) {
+        mMillis = millis;
+        mOffset = zone.getOffset(millis);
+        mZoneIndicator = 0;
+        mDefaultZone = zone;
+    }
+
+}
@@ -0,0 +1,328 @@
+package org.joda.time.internal.utils;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses the ISO8601 timestamps in the first field of each line of a text
+ * file, such as a CSV export, to epoch millis in bulk.
+ * <p>
+ * The file is memory-mapped and parsed in place, without creating a String
+ * per line. A large file is split into chunks at line boundaries, and the
+ * chunks are parsed in parallel by a <code>ForkJoinPool</code>.
+ * <p>
+ * The first field runs from the start of the line to the delimiter or the
+ * end of the line, and may be in double quotes. Lines may end with LF or
+ * CRLF, and empty lines are skipped. A line whose first field is not a
+ * valid date, such as a header, gives {@link #INVALID_MILLIS}, so the
+ * values stay aligned with the lines.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class TimestampColumnParser {
+
+    /** The value for a line whose first field is not a valid date. */
+    public static final long INVALID_MILLIS = Long.MIN_VALUE;
+
+    /** The default chunk size, 64MB. */
+    private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+    /** The size of the reads used to find a line boundary. */
+    private static final int BOUNDARY_READ_SIZE = 8192;
+
+    private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+
+    private final byte mDelimiter;
+    private final int mChunkSize;
+
+    /**
+     * Creates a parser for comma separated lines.
+     */
+    public TimestampColumnParser() {
+        this(',', DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a parser.
+     *
+     * @param delimiter  the ASCII character ending the first field
+     * @param chunkSize  the number of bytes to parse in one task, rounded up
+     *  to the next line boundary
+     * @throws IllegalArgumentException if the delimiter is not ASCII, is a
+     *  line break or a quote, or the chunk size is not positive
+     */
+    public TimestampColumnParser(char delimiter, int chunkSize) {
+        if (delimiter > 0x7F || delimiter == '\n' || delimiter == '\r' || delimiter == '"') {
+            throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        mDelimiter = (byte) delimiter;
+        mChunkSize = chunkSize;
+    }
+
+    /**
+     * Parses the lines from the position to the limit of a buffer. The
+     * buffer's position and limit are not changed.
+     *
+     * @param buffer  the buffer, with its position at the start of a line
+     * @param out  the buffer to put the values in, from its position
+     * @return the number of values put
+     * @throws java.nio.BufferOverflowException if the output is too small
+     */
+    public int parse(ByteBuffer buffer, LongBuffer out) {
+        int start = out.position();
+        parseLines(buffer, buffer.position(), buffer.limit(), out);
+        return out.position() - start;
+    }
+
+    /**
+     * Parses the lines of a file in parallel.
+     *
+     * @param channel  the file, read from start to end
+     * @param pool  the pool to parse the chunks in
+     * @return the values, one per non-empty line
+     * @throws IOException if the file cannot be read
+     */
+    public long[] parse(FileChannel channel, ForkJoinPool pool) throws IOException {
+        List<ChunkTask> tasks = countChunks(channel, pool);
+        long[] values = new long[totalCount(tasks)];
+        parseChunks(tasks, pool, LongBuffer.wrap(values));
+        return values;
+    }
+
+    /**
+     * Parses the lines of a file in parallel into a buffer, which can be
+     * off-heap. Each chunk is parsed straight into its part of the buffer.
+     *
+     * @param channel  the file, read from start to end
+     * @param pool  the pool to parse the chunks in
+     * @param out  the buffer to put the values in, from its position
+     * @return the number of values put
+     * @throws IOException if the file cannot be read
+     * @throws java.nio.BufferOverflowException if the output is too small
+     */
+    public int parse(FileChannel channel, ForkJoinPool pool, LongBuffer out) throws IOException {
+        List<ChunkTask> tasks = countChunks(channel, pool);
+        int count = totalCount(tasks);
+        if (count > out.remaining()) {
+            throw new BufferOverflowException();
+        }
+        parseChunks(tasks, pool, out);
+        out.position(out.position() + count);
+        return count;
+    }
+
+    /**
+     * Maps the chunks of a file and counts their values in parallel.
+     */
+    private List<ChunkTask> countChunks(FileChannel channel, ForkJoinPool pool) throws IOException {
+        long size = channel.size();
+        List<ChunkTask> tasks = new ArrayList<ChunkTask>();
+        long position = 0;
+        while (position < size) {
+            long end = (size - position <= mChunkSize ? size : findLineStart(channel, position + mChunkSize, size));
+            if (end - position > Integer.MAX_VALUE) {
+                throw new IOException("Line too long at offset " + position);
+            }
+            tasks.add(new ChunkTask(channel, position, (int) (end - position)));
+            position = end;
+        }
+        invokeChunks(tasks, pool);
+        return tasks;
+    }
+
+    /**
+     * Parses the counted chunks in parallel, each into its own range of the
+     * output from its position. The output's position is not changed.
+     */
+    private void parseChunks(List<ChunkTask> tasks, ForkJoinPool pool, LongBuffer out) throws IOException {
+        int index = out.position();
+        for (ChunkTask task : tasks) {
+            LongBuffer range = out.duplicate();
+            range.position(index);
+            task.reinitialize();
+            task.mOut = range;
+            index += task.mCount;
+        }
+        invokeChunks(tasks, pool);
+    }
+
+    private static void invokeChunks(final List<ChunkTask> tasks, ForkJoinPool pool) throws IOException {
+        pool.invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        for (ChunkTask task : tasks) {
+            if (task.mFailure != null) {
+                throw task.mFailure;
+            }
+        }
+    }
+
+    private static int totalCount(List<ChunkTask> tasks) throws IOException {
+        long count = 0;
+        for (ChunkTask task : tasks) {
+            count += task.mCount;
+        }
+        if (count > Integer.MAX_VALUE) {
+            throw new IOException("Too many lines: " + count);
+        }
+        return (int) count;
+    }
+
+    /**
+     * Finds the start of the first line at or after a position.
+     */
+    private static long findLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_READ_SIZE);
+        // the line starts at the position if the byte before it ends a line
+        long index = position - 1;
+        while (index < size) {
+            buffer.clear();
+            int read = channel.read(buffer, index);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return index + i + 1;
+                }
+            }
+            index += read;
+        }
+        return size;
+    }
+
+    /**
+     * Counts the non-empty lines between two indices of a buffer, which is
+     * the number of values parsing them puts.
+     */
+    private static int countValues(ByteBuffer buffer, int start, int end) {
+        int count = 0;
+        int position = start;
+        while (position < end) {
+            int lineEnd = indexOfNewline(buffer, position, end);
+            int contentEnd = (lineEnd > position && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd);
+            if (contentEnd > position) {
+                count++;
+            }
+            position = lineEnd + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Parses the lines between two indices of a buffer.
+     */
+    private void parseLines(ByteBuffer buffer, int start, int end, LongBuffer out) {
+        ParsedInstant result = new ParsedInstant();
+        int position = start;
+        while (position < end) {
+            int lineEnd = indexOfNewline(buffer, position, end);
+            int contentEnd = (lineEnd > position && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd);
+            if (contentEnd > position) {
+                out.put(parseField(buffer, position, contentEnd, result));
+            }
+            position = lineEnd + 1;
+        }
+    }
+
+    private long parseField(ByteBuffer buffer, int start, int end, ParsedInstant result) {
+        boolean quoted = (buffer.get(start) == '"');
+        if (quoted) {
+            start++;
+        }
+        int fieldEnd = start;
+        while (fieldEnd < end) {
+            byte b = buffer.get(fieldEnd);
+            if (b == mDelimiter || (quoted && b == '"')) {
+                break;
+            }
+            fieldEnd++;
+        }
+        if (ISO8601Utils.tryParse(result, buffer, start, fieldEnd - start)) {
+            return result.getMillis();
+        }
+        return INVALID_MILLIS;
+    }
+
+    /**
+     * Finds the next LF, eight bytes at a time.
+     *
+     * @return the index of the LF, or the end if there is none
+     */
+    private static int indexOfNewline(ByteBuffer buffer, int start, int end) {
+        int index = start;
+        if (buffer.order() == ByteOrder.BIG_ENDIAN) {
+            for (; index <= end - 8; index += 8) {
+                // a byte of x is zero where the word has an LF, and only
+                // those bytes keep their high bit clear after adding 0x7F
+                long x = buffer.getLong(index) ^ NEWLINES;
+                long found = ~(((x & LOWS) + LOWS) | x | LOWS);
+                if (found != 0) {
+                    return index + (Long.numberOfLeadingZeros(found) >>> 3);
+                }
+            }
+        }
+        for (; index < end; index++) {
+            if (buffer.get(index) == '\n') {
+                return index;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Maps one chunk of the file and counts its values, then once given
+     * its range of the output, parses it.
+     */
+    private final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel mChannel;
+        private final long mPosition;
+        private final int mSize;
+        private MappedByteBuffer mBuffer;
+        private int mCount;
+        /** The output positioned at the chunk's first value, null while counting. */
+        private LongBuffer mOut;
+        private IOException mFailure;
+
+        ChunkTask(FileChannel channel, long position, int size) {
+            mChannel = channel;
+            mPosition = position;
+            mSize = size;
+        }
+
+        protected void compute() {
+            if (mOut != null) {
+                parseLines(mBuffer, 0, mSize, mOut);
+                mBuffer = null;
+                mOut = null;
+                return;
+            }
+            try {
+                mBuffer = mChannel.map(FileChannel.MapMode.READ_ONLY, mPosition, mSize);
+                mBuffer.order(ByteOrder.BIG_ENDIAN);
+                mCount = countValues(mBuffer, 0, mSize);
+            } catch (IOException ex) {
+                mFailure = ex;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,280 @@
+package org.joda.time.tz;
+
+import java.util.Arrays;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import org.joda.time.DateTimeConstants;
+
+/**
+ * The offsets of a {@link TimeZone}, compiled into sorted arrays of
+ * transition instants and offsets.
+ * <p>
+ * <code>java.util.TimeZone</code> has no portable way to list its
+ * transitions, so they are found by sampling the zone once a day over the
+ * covered range and bisecting each change down to the millisecond. Offset
+ * lookups are then a binary search, and repeated lookups in the same period,
+ * typically around the current time, only compare against the bounds of the
+ * last hit. Instants outside the covered range are delegated to the zone,
+ * and transitions outside it are found by scanning the zone the same way.
+ * <p>
+ * Instances are thread-safe. The last hit index is written without
+ * synchronization, which is harmless since any index is a valid hint.
+ */
+public final class ZoneTransitions {
+
+    /** Start of the covered range, 1900-01-01T00:00:00Z. */
+    private static final long RANGE_START = -2208988800000L;
+
+    /** End of the covered range, 2100-01-01T00:00:00Z. */
+    private static final long RANGE_END = 4102444800000L;
+
+    /**
+     * Start of the scanned range before the covered one, 1800-01-01T00:00:00Z.
+     * The time zone database has no transitions before it.
+     */
+    private static final long EARLIEST_START = -5364662400000L;
+
+    private static final long STEP = DateTimeConstants.MILLIS_PER_DAY;
+
+    /**
+     * The longest time between transitions under the final rules of a zone
+     * observing daylight saving time, which repeat every year.
+     */
+    private static final long MAX_RULE_PERIOD = 367 * STEP;
+
+    private final TimeZone iZone;
+
+    /** Start of each period, followed by the end of the covered range. */
+    private final long[] iTransitions;
+
+    /** The offset in force during each period. */
+    private final int[] iOffsets;
+
+    private int iLastIndex;
+
+    /**
+     * Compiles the transitions of a zone.
+     *
+     * @param zone  the zone to compile, which must not be modified afterwards
+     * @return the compiled transitions
+     */
+    public static ZoneTransitions compile(TimeZone zone) {
+        if (zone instanceof SimpleTimeZone && !zone.useDaylightTime()) {
+            // a custom fixed offset, no need to look for transitions
+            return new ZoneTransitions(zone, new long[] {RANGE_START, RANGE_END},
+                new int[] {zone.getRawOffset()});
+        }
+
+        long[] transitions = new long[16];
+        int[] offsets = new int[16];
+        int count = 0;
+
+        int offset = zone.getOffset(RANGE_START);
+        transitions[count] = RANGE_START;
+        offsets[count++] = offset;
+
+        for (long instant = RANGE_START + STEP; instant < RANGE_END; instant += STEP) {
+            int next = zone.getOffset(instant);
+            // the offset may change more than once in (instant - STEP, instant]
+            long low = instant - STEP;
+            while (next != offset) {
+                long high = findChange(zone, low, instant, offset);
+                if (count == transitions.length) {
+                    transitions = copyOf(transitions, count * 2);
+                    offsets = copyOf(offsets, count * 2);
+                }
+                offset = zone.getOffset(high);
+                transitions[count] = high;
+                offsets[count++] = offset;
+                low = high;
+            }
+        }
+
+        long[] compiledTransitions = copyOf(transitions, count + 1);
+        compiledTransitions[count] = RANGE_END;
+        return new ZoneTransitions(zone, compiledTransitions, copyOf(offsets, count));
+    }
+
+    private ZoneTransitions(TimeZone zone, long[] transitions, int[] offsets) {
+        iZone = zone;
+        iTransitions = transitions;
+        iOffsets = offsets;
+    }
+
+    /**
+     * Gets the millisecond offset to add to UTC to get local time.
+     *
+     * @param instant  milliseconds from 1970-01-01T00:00:00Z
+     * @return the offset in milliseconds
+     */
+    public int getOffset(long instant) {
+        int i = iLastIndex;
+        if (iTransitions[i] <= instant && instant < iTransitions[i + 1]) {
+            return iOffsets[i];
+        }
+        i = findIndex(instant);
+        if (i < 0) {
+            return iZone.getOffset(instant);
+        }
+        iLastIndex = i;
+        return iOffsets[i];
+    }
+
+    /**
+     * Gets the first transition after the instant.
+     *
+     * @param instant  milliseconds from 1970-01-01T00:00:00Z
+     * @return the next transition, or the instant itself if the offset
+     *  never changes after it
+     */
+    public long nextTransition(long instant) {
+        if (instant < RANGE_START) {
+            // the zone keeps its earliest offset before EARLIEST_START
+            long start = Math.max(instant, EARLIEST_START);
+            long next = scanNext(start, RANGE_START);
+            if (next != start) {
+                return next;
+            }
+            return (iOffsets.length > 1 ? iTransitions[1] : nextAfterRange(instant));
+        }
+        int i = findIndex(instant);
+        if (i >= 0 && i + 1 < iOffsets.length) {
+            return iTransitions[i + 1];
+        }
+        return nextAfterRange(instant);
+    }
+
+    /**
+     * Gets the first transition after the instant, which is in the last
+     * covered period or after the covered range.
+     */
+    private long nextAfterRange(long instant) {
+        if (!iZone.useDaylightTime()) {
+            // the final rules keep a fixed offset
+            return instant;
+        }
+        long start = Math.max(instant, RANGE_END - STEP);
+        long next = scanNext(start, start + MAX_RULE_PERIOD);
+        return (next != start ? next : instant);
+    }
+
+    /**
+     * Gets the last transition before the instant.
+     *
+     * @param instant  milliseconds from 1970-01-01T00:00:00Z
+     * @return the previous transition, or the instant itself if the offset
+     *  never changes before it
+     */
+    public long previousTransition(long instant) {
+        if (instant > RANGE_END && iZone.useDaylightTime()) {
+            long previous = scanPrevious(instant, Math.max(instant - MAX_RULE_PERIOD, RANGE_END - STEP));
+            if (previous != instant) {
+                return previous;
+            }
+        }
+        if (instant > RANGE_START) {
+            int i = findIndex(Math.min(instant, RANGE_END) - 1);
+            if (i > 0) {
+                return iTransitions[i];
+            }
+        }
+        long start = Math.min(instant, RANGE_START);
+        if (start <= EARLIEST_START) {
+            return instant;
+        }
+        long previous = scanPrevious(start, EARLIEST_START);
+        return (previous != start ? previous : instant);
+    }
+
+    /**
+     * Is the offset the same at every instant of the covered range?
+     */
+    public boolean isFixed() {
+        return iOffsets.length == 1;
+    }
+
+    /**
+     * Finds the period containing the instant.
+     *
+     * @return the period index, or -1 if outside the covered range
+     */
+    private int findIndex(long instant) {
+        if (instant < RANGE_START || instant >= RANGE_END) {
+            return -1;
+        }
+        int i = Arrays.binarySearch(iTransitions, instant);
+        return (i >= 0 ? i : -i - 2);
+    }
+
+    /**
+     * Scans the zone a step at a time for the first change of offset after
+     * the start.
+     *
+     * @return the change, or the start if there's none up to the limit
+     */
+    private long scanNext(long start, long limit) {
+        int offset = iZone.getOffset(start);
+        for (long low = start; low < limit; low += STEP) {
+            long high = Math.min(low + STEP, limit);
+            if (iZone.getOffset(high) != offset) {
+                return findChange(iZone, low, high, offset);
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Scans the zone a step at a time for the last change of offset before
+     * the start.
+     *
+     * @return the change, or the start if there's none down to the limit
+     */
+    private long scanPrevious(long start, long limit) {
+        int offset = iZone.getOffset(start - 1);
+        for (long high = start - 1; high > limit; high -= STEP) {
+            long low = Math.max(high - STEP, limit);
+            int lowOffset = iZone.getOffset(low);
+            if (lowOffset != offset) {
+                // move past any earlier change in the same step
+                long change = findChange(iZone, low, high, lowOffset);
+                while (iZone.getOffset(change) != offset) {
+                    change = findChange(iZone, change, high, iZone.getOffset(change));
+                }
+                return change;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Bisects down to the millisecond a change of offset between two
+     * instants, where the offset at the later one differs.
+     *
+     * @param offset  the offset at the earlier instant
+     * @return the first instant after the earlier one with another offset
+     */
+    private static long findChange(TimeZone zone, long low, long high, int offset) {
+        while (high - low > 1) {
+            long mid = low + (high - low) / 2;
+            if (zone.getOffset(mid) == offset) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    private static long[] copyOf(long[] array, int length) {
+        long[] copy = new long[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+}
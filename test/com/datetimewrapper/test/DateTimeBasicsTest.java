@@ -43,6 +43,8 @@ import org.joda.time.Period;
 import org.joda.time.base.AbstractInstant;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.internal.utils.ISO8601Utils;
+import org.joda.time.internal.utils.ParsedInstant;
 
 /**
  * This class is a Junit unit test for DateTime.
@@ -141,6 +143,17 @@ public class DateTimeBasicsTest extends TestCase {
         assertEquals(0, test.getMillisOfSecond());
     }
 
+    public void testGetWeekOfWeekyear_locale() {
+        // ISO weeks whatever the locale, where Calendar.WEEK_OF_YEAR would not be
+        Locale.setDefault(Locale.US);
+        DateTime sunday = new DateTime(2002, 6, 9, 12, 0, 0, 0, LONDON);
+        assertEquals(24, sunday.toCalendar().get(Calendar.WEEK_OF_YEAR));
+        assertEquals(23, sunday.getWeekOfWeekyear());
+        DateTime newYear = new DateTime(2010, 1, 1, 12, 0, 0, 0, LONDON);
+        assertEquals(1, newYear.toCalendar().get(Calendar.WEEK_OF_YEAR));
+        assertEquals(53, newYear.getWeekOfWeekyear());
+    }
+
     //-----------------------------------------------------------------------
     public void testEqualsHashCode() {
         DateTime test1 = new DateTime(TEST_TIME1);
@@ -335,6 +348,375 @@ public class DateTimeBasicsTest extends TestCase {
         assertEquals("2002-06-09T02:00:00.000+02:00", test.toString());
     }
 
+    public void testToString_formatTo() throws Exception {
+        assertEquals("2002-06-08T22:30:00.000-01:30", new DateTime(TEST_TIME_NOW, DateTimeZone.forOffsetHoursMinutes(-1, 30)).toString());
+        assertEquals("2002-06-09T00:00:00.000Z", new DateTime(TEST_TIME_NOW, DateTimeZone.forID("GMT-00:00")).toString());
+        assertEquals("10000-01-01T00:00:00.000Z", ISO8601Utils.format(253402300800000L, 0));
+
+        char[] buf = new char[ISO8601Utils.MAX_FORMAT_LENGTH + 2];
+        int end = ISO8601Utils.formatTo(buf, 2, TEST_TIME_NOW + 5, DateTimeConstants.MILLIS_PER_HOUR);
+        assertEquals("2002-06-09T01:00:00.005+01:00", new String(buf, 2, end - 2));
+
+        StringBuilder sb = new StringBuilder("[");
+        ISO8601Utils.formatTo((Appendable) sb, TEST_TIME1, 0);
+        assertEquals("[2002-04-05T12:24:00.000Z", sb.toString());
+    }
+
+    public void testParseInstant() throws Exception {
+        ParsedInstant parsed = ISO8601Utils.parseInstant("2002-06-09T01:00:00.005+01:00");
+        assertEquals(TEST_TIME_NOW + 5, parsed.getMillis());
+        assertEquals(DateTimeConstants.MILLIS_PER_HOUR, parsed.getOffset());
+        assertTrue(parsed.hasOffset());
+        assertEquals(DateTimeZone.forOffsetHours(1), parsed.getZone());
+
+        parsed = ISO8601Utils.parseInstant("20020405T122400Z");
+        assertEquals(TEST_TIME1, parsed.getMillis());
+        assertSame(DateTimeZone.UTC, parsed.getZone());
+
+        // no zone indicator, London is on summer time
+        parsed = ISO8601Utils.parseInstant("2002-06-09T01:00");
+        assertEquals(TEST_TIME_NOW, parsed.getMillis());
+        assertEquals(DateTimeConstants.MILLIS_PER_HOUR, parsed.getOffset());
+        assertFalse(parsed.hasOffset());
+        assertSame(LONDON, parsed.getZone());
+
+        DateTime dt = new DateTime("2002-06-08T22:30:00.000-01:30");
+        assertEquals(TEST_TIME_NOW, dt.getMillis());
+        assertEquals(DateTimeZone.forOffsetHoursMinutes(-1, 30), dt.getZone());
+        assertEquals(dt, DateTime.parse("2002-06-08T22:30:00.000-01:30"));
+        try {
+            ISO8601Utils.parseInstant("2002-06-09T01:00+1:00");
+            fail();
+        } catch (java.text.ParseException ex) {}
+    }
+
+    public void testParseMillis_ranges() throws Exception {
+        String text = "[2002-06-09T01:00:00.005+01:00]";
+        long expected = TEST_TIME_NOW + 5;
+        assertEquals(expected, ISO8601Utils.parseMillis(text, 1, 29));
+        assertEquals(expected, ISO8601Utils.parseMillis(new StringBuilder(text), 1, 29));
+        assertEquals(expected, ISO8601Utils.parseMillis(text.toCharArray(), 1, 29));
+        byte[] bytes = text.getBytes("US-ASCII");
+        assertEquals(expected, ISO8601Utils.parseMillis(bytes, 1, 29));
+
+        java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        assertEquals(expected, ISO8601Utils.parseMillis(direct, 1, 29));
+        assertEquals(bytes.length, direct.position());
+        java.nio.ByteBuffer slice = java.nio.ByteBuffer.wrap(bytes, 1, 30).slice();
+        assertEquals(expected, ISO8601Utils.parseMillis(slice, 0, 29));
+
+        // the range ends the date, so the offset must not run into the bracket
+        try {
+            ISO8601Utils.parseMillis(bytes, 1, 30);
+            fail();
+        } catch (java.text.ParseException ex) {
+            assertEquals(1, ex.getErrorOffset());
+        }
+        try {
+            ISO8601Utils.parseMillis(bytes, 2, 30);
+            fail();
+        } catch (IndexOutOfBoundsException ex) {}
+    }
+
+    public void testParseMillis_canonical() throws Exception {
+        byte[] bytes = "2002-04-05T12:24:00.000Z".getBytes("US-ASCII");
+        assertEquals(TEST_TIME1, ISO8601Utils.parseMillis(bytes, 0, bytes.length));
+        assertEquals(TEST_TIME1, ISO8601Utils.parseMillis(
+                java.nio.ByteBuffer.wrap(bytes).order(java.nio.ByteOrder.LITTLE_ENDIAN), 0, bytes.length));
+        assertEquals(TEST_TIME_NOW + 999, ISO8601Utils.parseInstant("2002-06-09T00:00:00.999Zabc").getMillis());
+        // fields out of range roll over, as on the general path
+        assertEquals(TEST_TIME_NOW, ISO8601Utils.parseInstant("2002-06-08T24:00:00.000Z").getMillis());
+        // a non-digit in a digit position falls back to the general parser
+        try {
+            ISO8601Utils.parseInstant("2002-06-09T00:0a:00.000Z");
+            fail();
+        } catch (java.text.ParseException ex) {}
+        try {
+            ISO8601Utils.parseInstant("2002-06-09T00:00:00.00:Z");
+            fail();
+        } catch (java.text.ParseException ex) {}
+    }
+
+    public void testTryParse() throws Exception {
+        ParsedInstant parsed = new ParsedInstant();
+        assertTrue(ISO8601Utils.tryParse(parsed, "2002-06-09T01:00:00.005+01:00"));
+        assertEquals(TEST_TIME_NOW + 5, parsed.getMillis());
+        assertFalse(ISO8601Utils.tryParse(parsed, "2002-06-09T01:00:00.005+1:00"));
+        assertFalse(ISO8601Utils.tryParse(parsed, "2002-06-0"));
+        assertFalse(ISO8601Utils.tryParse(parsed, "2002-06-09Q"));
+        assertFalse(ISO8601Utils.tryParse(parsed, null));
+        assertTrue(ISO8601Utils.tryParse(parsed, "[20020405T122400Z]", 1, 16));
+        assertEquals(TEST_TIME1, parsed.getMillis());
+
+        assertEquals(new DateTime(TEST_TIME_NOW, DateTimeZone.UTC), DateTime.tryParse("2002-06-09T00:00:00.000Z"));
+        assertNull(DateTime.tryParse("2002-06-09T00:00:00.000X"));
+        assertNull(DateTime.tryParse(null));
+
+        DateTimeFormatter f = DateTimeFormat.forPattern("dd/MM/yyyy HH:mm");
+        assertEquals(new DateTime(2002, 6, 9, 1, 0, 0, 0), f.tryParseDateTime("09/06/2002 01:00"));
+        assertNull(f.tryParseDateTime("09/06/2002 1x:00"));
+        assertNull(f.tryParseDateTime(""));
+        try {
+            ISO8601Utils.parse("2002-06-09T0a");
+            fail();
+        } catch (java.text.ParseException ex) {
+            assertEquals(0, ex.getErrorOffset());
+            assertTrue(ex.getMessage(), ex.getMessage().endsWith("Unexpected character 'a' at index 12"));
+        }
+    }
+
+    public void testParseInstant_fraction() throws Exception {
+        ParsedInstant parsed = ISO8601Utils.parseInstant("2002-06-09T00:00:00.5Z");
+        assertEquals(TEST_TIME_NOW + 500, parsed.getMillis());
+        assertEquals(0, parsed.getNanoOfMilli());
+        parsed = ISO8601Utils.parseInstant("2002-06-09T01:00:00.123456+01:00");
+        assertEquals(TEST_TIME_NOW + 123, parsed.getMillis());
+        assertEquals(456000, parsed.getNanoOfMilli());
+        parsed = ISO8601Utils.parseInstant("20020609T000000.1234567899Z");
+        assertEquals(TEST_TIME_NOW + 123, parsed.getMillis());
+        assertEquals(456789, parsed.getNanoOfMilli());
+        assertEquals(0, ISO8601Utils.parseInstant("2002-06-09T00:00:00.000Z").getNanoOfMilli());
+        assertEquals(TEST_TIME_NOW + 120, new DateTime("2002-06-09T00:00:00.12Z").getMillis());
+        assertFalse(ISO8601Utils.tryParse(parsed, "2002-06-09T00:00:00.Z"));
+    }
+
+    public void testForPattern_cached() {
+        DateTimeFormatter f = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm");
+        assertSame(f, DateTimeFormat.forPattern("yyyy-MM-dd HH:mm"));
+        assertEquals("yyyy-MM-dd HH:mm", f.getPattern());
+        try {
+            DateTimeFormat.forPattern("yyyy-MM-dd 'T");
+            fail();
+        } catch (IllegalArgumentException ex) {}
+        try {
+            DateTimeFormat.forPattern("yyyy-MM-ddTHH");
+            fail();
+        } catch (IllegalArgumentException ex) {}
+    }
+
+    public void testParseDateTime_pattern() {
+        DateTimeFormatter f = DateTimeFormat.forPattern("dd MMM yyyy HH:mm:ss.SSS");
+        assertEquals(new DateTime(2002, 6, 9, 1, 0, 0, 5), f.parseDateTime("09 Jun 2002 01:00:00.005"));
+        assertEquals(new DateTime(2002, 7, 1, 0, 0, 0, 0), f.parseDateTime("31 jun 2002 00:00:00.000"));
+
+        f = DateTimeFormat.forPattern("yyyyMMddHHmmZ");
+        assertEquals(TEST_TIME_NOW, f.parseDateTime("200206090200+0200").getMillis());
+        assertEquals(LONDON, f.parseDateTime("200206090200+0200").getZone());
+
+        // in the gap, as SimpleDateFormat does
+        f = DateTimeFormat.forPattern("yyyy-MM-dd hh:mm a");
+        assertEquals(new DateTime(2012, 3, 25, 2, 30, 0, 0), f.parseDateTime("2012-03-25 01:30 AM"));
+        assertEquals(new DateTime(2012, 3, 25, 12, 30, 0, 0), f.parseDateTime("2012-03-25 12:30 pm"));
+        try {
+            f.parseDateTime("2012-03-25");
+            fail();
+        } catch (IllegalArgumentException ex) {}
+
+        LocalDateTime local = LocalDateTime.parse("2002-06-09 01:00 am", f);
+        assertEquals(new DateTime(2002, 6, 9, 1, 0, 0, 0, PARIS), local.toDateTime(PARIS));
+    }
+
+    public void testPrint_pattern() {
+        DateTimeFormatter f = DateTimeFormat.forPattern("EEE, d MMMM yy hh:mm:ss.SSS a Z 'o''clock'");
+        assertEquals("Sun, 9 June 02 01:00:00.000 am +0100 o'clock", f.print(TEST_TIME_NOW));
+        assertEquals("Sun, 9 June 02 02:00:00.000 am +0200 o'clock", f.print(new DateTime(TEST_TIME_NOW, PARIS)));
+        assertEquals("2002-06-09T00:00:00Z", DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ssX").print(new DateTime(TEST_TIME_NOW, DateTimeZone.UTC)));
+    }
+
+    public void testPrint_secondCache() {
+        DateTimeFormatter iso = new DateTimeFormatter().withSecondCache();
+        assertSame(iso, iso.withSecondCache());
+        assertEquals("2002-06-09T01:00:00.005+01:00", iso.print(new DateTime(TEST_TIME_NOW + 5)));
+        assertEquals("2002-06-09T01:00:00.999+01:00", iso.print(new DateTime(TEST_TIME_NOW + 999)));
+        assertEquals("2002-06-09T00:00:00.999Z", iso.print(new DateTime(TEST_TIME_NOW + 999, DateTimeZone.UTC)));
+        assertEquals("2002-06-09T01:00:01.000+01:00", iso.print(new DateTime(TEST_TIME_NOW + 1000)));
+        assertEquals("1969-12-31T23:59:59.999Z", iso.print(new DateTime(-1L, DateTimeZone.UTC)));
+
+        DateTimeFormatter f = DateTimeFormat.forPattern("dd/MMM/yyyy:HH:mm:ss.S Z").withSecondCache();
+        assertEquals("09/Jun/2002:01:00:00.5 +0100", f.print(new DateTime(TEST_TIME_NOW + 5)));
+        assertEquals("09/Jun/2002:01:00:00.42 +0100", f.print(new DateTime(TEST_TIME_NOW + 42)));
+        Locale.setDefault(Locale.FRANCE);
+        assertEquals("09/juin/2002:01:00:00.42 +0100", f.print(new DateTime(TEST_TIME_NOW + 42)));
+
+        // a zone with the same ID but other rules does not get the cached text
+        DateTimeZone paris = DateTimeZone.forID("Europe/Paris");
+        DateTimeZone custom = new DateTimeZone(new java.util.SimpleTimeZone(DateTimeConstants.MILLIS_PER_HOUR, "Europe/Paris"));
+        DateTimeFormatter time = DateTimeFormat.forPattern("HH:mm:ss.SSS Z").withSecondCache();
+        assertEquals("14:00:00.001 +0200", time.print(new DateTime(TEST_TIME_NOW + 12 * DateTimeConstants.MILLIS_PER_HOUR + 1, paris)));
+        assertEquals("13:00:00.001 +0100", time.print(new DateTime(TEST_TIME_NOW + 12 * DateTimeConstants.MILLIS_PER_HOUR + 1, custom)));
+        assertEquals("2002-06-09T02:00:00.005+02:00", iso.print(new DateTime(TEST_TIME_NOW + 5, paris)));
+        assertEquals("2002-06-09T01:00:00.005+01:00", iso.print(new DateTime(TEST_TIME_NOW + 5, custom)));
+    }
+
+    public void testPrintTo_bytes() throws Exception {
+        DateTime dt = new DateTime(TEST_TIME_NOW + 5);
+        byte[] buf = new byte[40];
+        int length = new DateTimeFormatter().printTo(buf, 2, dt);
+        assertEquals("2002-06-09T01:00:00.005+01:00", new String(buf, 2, length, "US-ASCII"));
+        try {
+            new DateTimeFormatter().printTo(new byte[30], 2, dt);
+            fail();
+        } catch (IndexOutOfBoundsException ex) {}
+
+        java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(64);
+        length = ISO8601Utils.formatTo(direct, TEST_TIME1, 0);
+        assertEquals(24, length);
+        assertEquals(24, direct.position());
+
+        Locale.setDefault(Locale.FRANCE);
+        DateTimeFormatter f = DateTimeFormat.forPattern("d MMMM yyyy");
+        length = f.printTo(direct, new DateTime(TEST_TIME_NOW - 120L * DateTimeConstants.MILLIS_PER_DAY));
+        assertEquals("9 f\u00e9vrier 2002", new String(bytesOf(direct, 24, length), "UTF-8"));
+        try {
+            f.printTo(java.nio.ByteBuffer.allocate(10), dt);
+            fail();
+        } catch (java.nio.BufferOverflowException ex) {}
+    }
+
+    private static byte[] bytesOf(java.nio.ByteBuffer buf, int position, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buf.get(position + i);
+        }
+        return bytes;
+    }
+
+    public void testLocalDate_epochDay() {
+        LocalDate date = new LocalDate(2002, Calendar.JUNE, 9);
+        assertEquals(TEST_TIME_NOW / DateTimeConstants.MILLIS_PER_DAY, date.getEpochDay());
+        assertEquals(date, new DateTime(TEST_TIME_NOW).toLocalDate());
+        assertEquals(date, new LocalDate(TEST_TIME_NOW + 5L * DateTimeConstants.MILLIS_PER_HOUR));
+        assertEquals(date, LocalDate.fromEpochDay(date.getEpochDay()));
+        assertEquals(-1L, new LocalDate(-1L).getEpochDay());
+
+        // fields out of range roll over, as in Calendar
+        assertEquals(new LocalDate(2003, Calendar.JANUARY, 1), new LocalDate(2002, 12, 1));
+        assertEquals(new LocalDate(2001, Calendar.DECEMBER, 31), new LocalDate(2002, Calendar.JANUARY, 0));
+        assertEquals(new LocalDate(2001, Calendar.NOVEMBER, 9), new LocalDate(2002, -2, 9));
+        assertEquals(new LocalDate(2002, Calendar.MARCH, 1), new LocalDate(2002, Calendar.FEBRUARY, 29));
+
+        LocalDate next = date.plusDays(1);
+        assertEquals(new LocalDate(2002, Calendar.JUNE, 10), next);
+        assertEquals(new LocalDate(2001, Calendar.JUNE, 9), date.plusDays(-365));
+        assertSame(date, date.plusDays(0));
+        assertEquals(true, date.isBefore(next));
+        assertEquals(false, date.isAfter(next));
+        assertEquals(true, next.isAfter(date));
+        assertEquals(-1, date.compareTo(next));
+        assertEquals(1, next.compareTo(date));
+        assertEquals(0, date.compareTo(new LocalDate(2002, Calendar.JUNE, 9)));
+        assertEquals(date.hashCode(), new LocalDate(2002, Calendar.JUNE, 9).hashCode());
+        assertEquals(true, date.isEqual(new LocalDate(2002, Calendar.MAY, 40)));
+    }
+
+    public void testLocalTime_millisOfDay() {
+        LocalTime time = new LocalTime(22, 30, 15, 250);
+        assertEquals(81015250, time.getMillisOfDay());
+        assertEquals(22, time.getHourOfDay());
+        assertEquals(30, time.getMinuteOfHour());
+        assertEquals(15, time.getSecondOfMinute());
+        assertEquals(250, time.getMillisOfSecond());
+        assertEquals(time, LocalTime.fromMillisOfDay(81015250));
+        assertEquals(time, new LocalTime(time));
+        assertEquals(time.hashCode(), new LocalTime(22, 30, 15, 250).hashCode());
+
+        // arithmetic wraps around midnight in both directions
+        assertEquals(new LocalTime(1, 30, 15, 250), time.plusHours(3));
+        assertEquals(new LocalTime(0, 10, 15, 250), time.plusMinutes(100));
+        assertEquals(new LocalTime(23, 30, 15, 250), time.minusHours(-49));
+        assertEquals(new LocalTime(21, 30, 15, 250), time.minusHours(25));
+        assertEquals(new LocalTime(22, 29, 15, 250), time.minusMinutes(1));
+        assertEquals(new LocalTime(0, 37, 15, 250), time.plusMinutes(Integer.MAX_VALUE));
+        assertEquals(LocalTime.MIDNIGHT, LocalTime.fromMillisOfDay(DateTimeConstants.MILLIS_PER_DAY));
+        try {
+            new LocalTime(24, 0);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+        try {
+            new LocalTime(25, 0, 0, 0);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+        try {
+            new LocalTime(12, 60);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+        try {
+            new LocalTime(12, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+        try {
+            new LocalTime(12, 0, 0, 1000);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+        assertEquals(new LocalTime(23, 59, 59, 999), LocalTime.fromMillisOfDay(-1));
+        assertSame(time, time.plusHours(0));
+
+        // whole minutes are interned
+        assertSame(LocalTime.MIDNIGHT, new LocalTime(23, 0).plusHours(1));
+        assertSame(LocalTime.fromMillisOfDay(9 * DateTimeConstants.MILLIS_PER_HOUR), new LocalTime(8, 30).plusMinutes(30));
+        assertSame(LocalTime.MIDNIGHT, new DateTime(TEST_TIME_NOW - DateTimeConstants.MILLIS_PER_HOUR).toLocalTime());
+
+        assertEquals(true, time.isAfter(time.minusMinutes(1)));
+        assertEquals(false, time.isBefore(time.minusMinutes(1)));
+        assertEquals(true, time.isBefore(time.plusMinutes(1)));
+        assertEquals(0, time.compareTo(new LocalTime(22, 30, 15, 250)));
+        assertEquals(1, time.compareTo(LocalTime.MIDNIGHT));
+        assertEquals(new LocalTime(1, 0), new LocalTime(TEST_TIME_NOW));
+    }
+
+    public void testLocalDateTime_packed() {
+        LocalDateTime ldt = new LocalDateTime(2002, 6, 9, 1, 2, 3, 4);
+        assertEquals(2002, ldt.getYear());
+        assertEquals(6, ldt.getMonthOfYear());
+        assertEquals(9, ldt.getDayOfMonth());
+        assertEquals(1, ldt.getHourOfDay());
+        assertEquals(2, ldt.getMinuteOfHour());
+        assertEquals(3, ldt.getSecondOfMinute());
+        assertEquals(4, ldt.getMillisOfSecond());
+        assertEquals(new LocalTime(1, 2, 3, 4), ldt.toLocalTime());
+
+        DateTime dt = ldt.toDateTime(LONDON);
+        assertEquals(new DateTime(2002, 6, 9, 1, 2, 3, 4, LONDON), dt);
+        assertEquals(ldt, dt.toLocalDateTime());
+        assertEquals(ldt, dt.toDateTime(PARIS).toLocalDateTime().toDateTime(PARIS).toDateTime(LONDON).toLocalDateTime());
+        assertEquals(new DateTime(2002, 6, 9, 1, 2, 3, 4), ldt.toDateTime(null));
+
+        Calendar cal = new GregorianCalendar(2002, Calendar.JUNE, 9, 1, 2, 3);
+        cal.set(Calendar.MILLISECOND, 4);
+        assertEquals(ldt, new LocalDateTime(cal));
+
+        LocalDateTime bc = new LocalDateTime(-44, 3, 15, 12, 0);
+        assertEquals(-44, bc.getYear());
+        assertEquals(bc, bc.toDateTime(DateTimeZone.UTC).toLocalDateTime());
+
+        LocalDateTime later = new LocalDateTime(2002, 6, 9, 1, 2, 3, 5);
+        assertEquals(-1, ldt.compareTo(later));
+        assertEquals(1, later.compareTo(ldt));
+        assertEquals(-1, bc.compareTo(ldt));
+        assertEquals(1, new LocalDateTime(2002, 6, 10, 0, 0).compareTo(new LocalDateTime(2002, 6, 9, 23, 59, 59, 999)));
+        assertEquals(0, ldt.compareTo(new LocalDateTime(2002, 6, 9, 1, 2, 3, 4)));
+        assertEquals(ldt.hashCode(), new LocalDateTime(2002, 6, 9, 1, 2, 3, 4).hashCode());
+        assertEquals(false, ldt.equals(later));
+
+        try {
+            new LocalDateTime(2002, 2, 29, 0, 0);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+        try {
+            new LocalDateTime(2002, 6, 9, 24, 0);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+        try {
+            new LocalDateTime(200000000, 1, 1, 0, 0);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+        try {
+            new LocalDateTime(2002, 3, 31, 1, 30).toDateTime(LONDON);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+    }
+
     public void testToDateTime_DateTimeZone() {
         DateTime test = new DateTime(TEST_TIME1);
         DateTime result = test.toDateTime(LONDON);
@@ -355,6 +737,63 @@ public class DateTimeBasicsTest extends TestCase {
         assertEquals(test, result);
     }
 
+    public void testPlusHours_acrossDST() {
+        // 2002-03-31 is the first day of British Summer Time
+        DateTime test = new DateTime(2002, 3, 31, 0, 30, 0, 0, LONDON);
+        DateTime result = test.plusHours(1);
+        assertEquals(test.getMillis() + DateTimeConstants.MILLIS_PER_HOUR, result.getMillis());
+        assertEquals(2, result.getHourOfDay());
+        assertEquals(30, result.getMinuteOfHour());
+        assertEquals(test, result.minusHours(1));
+        assertEquals(test, result.minusMinutes(60));
+        assertSame(test, test.plusMillis(0));
+    }
+
+    public void testPlusMonths_endOfMonth() {
+        DateTime test = new DateTime(2004, 1, 31, 12, 0, 0, 0, LONDON);
+        assertEquals(new DateTime(2004, 2, 29, 12, 0, 0, 0, LONDON), test.plusMonths(1));
+        assertEquals(new DateTime(2004, 4, 30, 12, 0, 0, 0, LONDON), test.plusMonths(3));
+        assertEquals(new DateTime(2003, 12, 31, 12, 0, 0, 0, LONDON), test.minusMonths(1));
+        assertEquals(new DateTime(2005, 2, 28, 12, 0, 0, 0, LONDON), test.plusMonths(1).plusYears(1));
+    }
+
+    public void testPlusDays_acrossDST() {
+        DateTime test = new DateTime(2002, 3, 30, 12, 0, 0, 0, LONDON);
+        DateTime result = test.plusDays(1);
+        assertEquals(12, result.getHourOfDay());
+        assertEquals(test.getMillis() + 23L * DateTimeConstants.MILLIS_PER_HOUR, result.getMillis());
+        assertEquals(test, result.minusDays(1));
+        assertEquals(new DateTime(2002, 4, 6, 12, 0, 0, 0, LONDON), test.plusWeeks(1));
+    }
+
+    public void testProperty_rounding() {
+        DateTime test = new DateTime(2002, 6, 9, 13, 45, 30, 500, LONDON);
+        assertEquals(new DateTime(2002, 6, 9, 13, 0, 0, 0, LONDON), test.hourOfDay().roundFloorCopy());
+        assertEquals(new DateTime(2002, 6, 9, 14, 0, 0, 0, LONDON), test.hourOfDay().roundCeilingCopy());
+        assertEquals(new DateTime(2002, 6, 9, 14, 0, 0, 0, LONDON), test.hourOfDay().roundHalfFloorCopy());
+        assertEquals(new DateTime(2002, 6, 9, 13, 45, 30, 0, LONDON), test.secondOfMinute().roundHalfEvenCopy());
+        assertEquals(new DateTime(2002, 6, 9, 13, 45, 31, 0, LONDON), test.secondOfMinute().roundHalfCeilingCopy());
+        assertEquals(45L * DateTimeConstants.MILLIS_PER_MINUTE + 30500L, test.hourOfDay().remainder());
+        // a tie follows the parity of the floor, also where the field wraps
+        assertEquals(new DateTime(2002, 2, 1, 0, 0, 0, 0, LONDON),
+                new DateTime(2002, 1, 31, 12, 0, 0, 0, LONDON).dayOfMonth().roundHalfEvenCopy());
+        assertEquals(new DateTime(2002, 1, 30, 0, 0, 0, 0, LONDON),
+                new DateTime(2002, 1, 30, 12, 0, 0, 0, LONDON).dayOfMonth().roundHalfEvenCopy());
+        assertEquals(new DateTime(2002, 6, 9, 14, 0, 0, 0, LONDON),
+                new DateTime(2002, 6, 9, 13, 59, 30, 0, LONDON).minuteOfHour().roundHalfEvenCopy());
+        
+        assertEquals(new DateTime(2002, 6, 9, 0, 0, 0, 0, LONDON), test.dayOfMonth().roundFloorCopy());
+        assertEquals(new DateTime(2002, 6, 10, 0, 0, 0, 0, LONDON), test.dayOfMonth().roundCeilingCopy());
+        assertEquals(new DateTime(2002, 6, 3, 0, 0, 0, 0, LONDON), test.weekOfWeekyear().roundFloorCopy());
+        assertEquals(new DateTime(2002, 7, 1, 0, 0, 0, 0, LONDON), test.monthOfYear().roundCeilingCopy());
+        assertEquals(new DateTime(2002, 1, 1, 0, 0, 0, 0, LONDON), test.year().roundFloorCopy());
+        
+        // the source is never modified, and rounding a rounded value is a no-op
+        assertEquals(new DateTime(2002, 6, 9, 13, 45, 30, 500, LONDON), test);
+        DateTime midnight = test.dayOfMonth().roundFloorCopy();
+        assertSame(midnight, midnight.dayOfMonth().roundCeilingCopy());
+    }
+
     public void testToDate() {
         DateTime test = new DateTime(TEST_TIME1);
         Date result = test.toDate();
@@ -378,6 +817,17 @@ public class DateTimeBasicsTest extends TestCase {
         assertEquals(TimeZone.getTimeZone("Europe/Paris"), result.getTimeZone());
     }
 
+    public void testToCalendar_isCopy() {
+        DateTime test = new DateTime(TEST_TIME1, PARIS);
+        Calendar result = test.toCalendar();
+        assertEquals(test.getMillis(), result.getTimeInMillis());
+        assertEquals(TimeZone.getTimeZone("Europe/Paris"), result.getTimeZone());
+        
+        result.add(Calendar.HOUR_OF_DAY, 1);
+        assertEquals(TEST_TIME1, test.getMillis());
+        assertEquals(14, test.getHourOfDay());
+    }
+
     //-----------------------------------------------------------------------
     public void testWithDate_int_int_int() {
         DateTime test = new DateTime(2002, 4, 5, 1, 2, 3, 4);
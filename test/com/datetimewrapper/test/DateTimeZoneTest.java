@@ -29,10 +29,12 @@ import java.security.Permissions;
 import java.security.Policy;
 import java.security.ProtectionDomain;
 import java.text.DateFormatSymbols;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.SimpleTimeZone;
 import java.util.TimeZone;
 
 import junit.framework.TestCase;
@@ -42,6 +44,7 @@ import org.joda.time.DateTime;
 import org.joda.time.DateTimeConstants;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Instant;
+import org.joda.time.LocalDate;
 import org.joda.time.LocalDateTime;
 
 /**
@@ -155,9 +158,17 @@ public class DateTimeZoneTest extends TestCase {
     //-----------------------------------------------------------------------
     public void testDefault() {
         assertNotNull(DateTimeZone.getDefault());
+        assertSame(DateTimeZone.getDefault(), DateTimeZone.getDefault());
         
         DateTimeZone.setDefault(PARIS);
         assertEquals(PARIS, DateTimeZone.getDefault());
+        assertSame(PARIS, DateTimeZone.getDefault());
+        assertEquals("Europe/Paris", TimeZone.getDefault().getID());
+        
+        // changes to the JDK default are seen
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        assertSame(DateTimeZone.forID("Asia/Tokyo"), DateTimeZone.getDefault());
+        assertEquals("Asia/Tokyo", new DateTime().getZone().getID());
         
         try {
             DateTimeZone.setDefault(null);
@@ -264,7 +275,25 @@ public class DateTimeZoneTest extends TestCase {
             DateTimeZone.forOffsetHoursMinutes(-24, 0);
             fail();
         } catch (IllegalArgumentException ex) {}
-    }        
+    }
+
+    //-----------------------------------------------------------------------
+    public void testForOffsetMillis_int() {
+        assertSame(DateTimeZone.UTC, DateTimeZone.forOffsetMillis(0));
+        assertSame(DateTimeZone.forOffsetHoursMinutes(5, 30), DateTimeZone.forOffsetMillis(330 * DateTimeConstants.MILLIS_PER_MINUTE));
+        assertSame(DateTimeZone.forOffsetHoursMinutes(-2, 15), DateTimeZone.forOffsetHoursMinutes(-2, -15));
+        assertEquals("GMT+05:30", DateTimeZone.forOffsetHoursMinutes(5, 30).getID());
+        assertEquals("GMT-23:45", DateTimeZone.forOffsetHoursMinutes(-23, 45).getID());
+
+        DateTimeZone zone = DateTimeZone.forOffsetMillis(DateTimeConstants.MILLIS_PER_HOUR + 1500);
+        assertEquals("GMT+01:00:01.500", zone.getID());
+        assertEquals(DateTimeConstants.MILLIS_PER_HOUR + 1500, zone.getOffset(TEST_TIME_SUMMER));
+        assertEquals(true, zone.isFixed());
+        try {
+            DateTimeZone.forOffsetMillis(DateTimeConstants.MILLIS_PER_DAY);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+    }
 
     //-----------------------------------------------------------------------
     public void testForTimeZone_TimeZone() {
@@ -296,6 +325,29 @@ public class DateTimeZoneTest extends TestCase {
         assertEquals("EST", zone.getID());
     }
 
+    public void testForID_interned() {
+        assertSame(DateTimeZone.forID("Europe/Paris"), DateTimeZone.forID("Europe/Paris"));
+        assertSame(DateTimeZone.forID("Europe/Paris"), DateTimeZone.forTimeZone(TimeZone.getTimeZone("Europe/Paris")));
+        assertSame(DateTimeZone.UTC, DateTimeZone.forID("UTC"));
+        assertSame(LONDON, new DateTime(TEST_TIME_SUMMER).getZone());
+        
+        // a custom zone reusing a known ID is not interned
+        TimeZone custom = new java.util.SimpleTimeZone(3 * DateTimeConstants.MILLIS_PER_HOUR, "Europe/Paris");
+        DateTimeZone zone = DateTimeZone.forTimeZone(custom);
+        assertEquals(3 * DateTimeConstants.MILLIS_PER_HOUR, zone.getOffset(TEST_TIME_SUMMER));
+        assertEquals(2 * DateTimeConstants.MILLIS_PER_HOUR, PARIS.getOffset(TEST_TIME_SUMMER));
+        
+        // changing the JDK zone handed out leaves the interned zone alone
+        TimeZone tz = PARIS.getTimeZone();
+        assertNotSame(tz, PARIS.getTimeZone());
+        tz.setRawOffset(5 * DateTimeConstants.MILLIS_PER_HOUR);
+        PARIS.toTimeZone().setRawOffset(5 * DateTimeConstants.MILLIS_PER_HOUR);
+        new DateTime(TEST_TIME_SUMMER, PARIS).toCalendar().getTimeZone().setRawOffset(5 * DateTimeConstants.MILLIS_PER_HOUR);
+        assertEquals(DateTimeConstants.MILLIS_PER_HOUR, PARIS.getTimeZone().getRawOffset());
+        assertEquals(DateTimeConstants.MILLIS_PER_HOUR, TimeZone.getTimeZone("Europe/Paris").getRawOffset());
+        assertEquals(2 * DateTimeConstants.MILLIS_PER_HOUR, PARIS.getOffset(TEST_TIME_SUMMER));
+    }
+
     public void testFromTimeZoneInvalid() throws Exception {
         TimeZone jdkZone = new TimeZone() {
             private static final long serialVersionUID = 1L;
@@ -439,6 +491,90 @@ public class DateTimeZoneTest extends TestCase {
     }
 
     //-----------------------------------------------------------------------
+    public void testNextPreviousTransition() {
+        // British Summer Time 2002 started on March 31st at 01:00 UTC
+        long bst = new DateTime(2002, 3, 31, 1, 0, 0, 0, DateTimeZone.UTC).getMillis();
+        assertEquals(bst, LONDON.nextTransition(TEST_TIME_WINTER));
+        assertEquals(bst, LONDON.previousTransition(TEST_TIME_SUMMER));
+        assertEquals(0, LONDON.getOffset(bst - 1));
+        assertEquals(DateTimeConstants.MILLIS_PER_HOUR, LONDON.getOffset(bst));
+        
+        assertEquals(TEST_TIME_SUMMER, DateTimeZone.UTC.nextTransition(TEST_TIME_SUMMER));
+        assertEquals(true, DateTimeZone.UTC.isFixed());
+        assertEquals(false, LONDON.isFixed());
+    }
+
+    public void testNextPreviousTransition_constructed() {
+        // zones from the constructors use the transitions of the interned zone
+        DateTimeZone zone = new DateTimeZone("Europe/Paris");
+        assertNotSame(PARIS, zone);
+        assertEquals(PARIS.getOffset(TEST_TIME_SUMMER), zone.getOffset(TEST_TIME_SUMMER));
+        assertEquals(PARIS.nextTransition(TEST_TIME_WINTER), zone.nextTransition(TEST_TIME_WINTER));
+        zone = new DateTimeZone(TimeZone.getTimeZone("Europe/Paris"));
+        assertEquals(PARIS.previousTransition(TEST_TIME_SUMMER), zone.previousTransition(TEST_TIME_SUMMER));
+        
+        // unless the rules differ
+        SimpleTimeZone custom = new SimpleTimeZone(DateTimeConstants.MILLIS_PER_HOUR, "Europe/Paris",
+            Calendar.APRIL, 1, Calendar.SUNDAY, DateTimeConstants.MILLIS_PER_HOUR,
+            Calendar.OCTOBER, -1, Calendar.SUNDAY, DateTimeConstants.MILLIS_PER_HOUR);
+        zone = new DateTimeZone(custom);
+        long april = new DateTime(2002, 4, 7, 0, 0, 0, 0, DateTimeZone.UTC).getMillis();
+        assertEquals(april, zone.nextTransition(TEST_TIME_WINTER));
+        assertTrue(PARIS.nextTransition(TEST_TIME_WINTER) < april);
+    }
+
+    public void testNextPreviousTransition_outsideRange() {
+        // summer time continues after 2100
+        long dec2099 = new DateTime(2099, 12, 1, 0, 0, 0, 0, DateTimeZone.UTC).getMillis();
+        long next = LONDON.nextTransition(dec2099);
+        assertEquals(new DateTime(2100, 3, 28, 1, 0, 0, 0, DateTimeZone.UTC).getMillis(), next);
+        assertEquals(next, LONDON.nextTransition(next - 1));
+        long jun2150 = new DateTime(2150, 6, 1, 0, 0, 0, 0, DateTimeZone.UTC).getMillis();
+        long previous = LONDON.previousTransition(jun2150);
+        assertEquals(new DateTime(2150, 3, 29, 1, 0, 0, 0, DateTimeZone.UTC).getMillis(), previous);
+        assertEquals(0, LONDON.getOffset(previous - 1));
+        assertEquals(DateTimeConstants.MILLIS_PER_HOUR, LONDON.getOffset(previous));
+        assertEquals(dec2099, DateTimeZone.UTC.nextTransition(dec2099));
+        assertEquals(jun2150, DateTimeZone.UTC.previousTransition(jun2150));
+
+        // summer time from 1850, before the compiled range
+        SimpleTimeZone old = new SimpleTimeZone(0, "Test/Old",
+            Calendar.MARCH, -1, Calendar.SUNDAY, DateTimeConstants.MILLIS_PER_HOUR,
+            Calendar.OCTOBER, -1, Calendar.SUNDAY, DateTimeConstants.MILLIS_PER_HOUR);
+        old.setStartYear(1850);
+        DateTimeZone zone = new DateTimeZone(old);
+        long jan1800 = new DateTime(1800, 1, 1, 0, 0, 0, 0, DateTimeZone.UTC).getMillis();
+        long first = new DateTime(1850, 3, 31, 1, 0, 0, 0, DateTimeZone.UTC).getMillis();
+        assertEquals(first, zone.nextTransition(jan1800));
+        assertEquals(first, zone.nextTransition(jan1800 - 1000L * DateTimeConstants.MILLIS_PER_DAY));
+        assertEquals(first, zone.previousTransition(first + DateTimeConstants.MILLIS_PER_DAY));
+        assertEquals(first - 1, zone.previousTransition(first - 1));
+        long oct1850 = new DateTime(1850, 10, 27, 0, 0, 0, 0, DateTimeZone.UTC).getMillis();
+        assertEquals(oct1850, zone.nextTransition(first));
+        long jan1900 = new DateTime(1900, 1, 1, 0, 0, 0, 0, DateTimeZone.UTC).getMillis();
+        assertEquals(new DateTime(1899, 10, 29, 0, 0, 0, 0, DateTimeZone.UTC).getMillis(), zone.previousTransition(jan1900));
+    }
+
+    public void testNextPreviousTransition_twoInOneDay() {
+        final long first = new DateTime(2000, 1, 1, 3, 0, 0, 0, DateTimeZone.UTC).getMillis();
+        final long second = first + 6 * DateTimeConstants.MILLIS_PER_HOUR;
+        SimpleTimeZone changing = new SimpleTimeZone(0, "Test/Changing") {
+            private static final long serialVersionUID = 1L;
+            public int getOffset(long date) {
+                return (date < first ? 0 : date < second ? 1 : 2) * DateTimeConstants.MILLIS_PER_HOUR;
+            }
+            public boolean useDaylightTime() {
+                return true;
+            }
+        };
+        DateTimeZone zone = new DateTimeZone(changing);
+        assertEquals(first, zone.nextTransition(first - 1));
+        assertEquals(second, zone.nextTransition(first));
+        assertEquals(first, zone.previousTransition(second));
+        assertEquals(DateTimeConstants.MILLIS_PER_HOUR, zone.getOffset(first));
+        assertEquals(2 * DateTimeConstants.MILLIS_PER_HOUR, zone.getOffset(second));
+    }
+
     public void testIsLocalDateTimeGap_Berlin() {
         DateTimeZone zone = DateTimeZone.forID("Europe/Berlin");
         assertEquals(false, zone.isLocalDateTimeGap(new LocalDateTime(2007, 3, 25, 1, 0)));
@@ -472,6 +608,73 @@ public class DateTimeZoneTest extends TestCase {
         assertEquals(false, zone.isLocalDateTimeGap(new LocalDateTime(2007, 12, 24, 12, 34)));
     }
 
+    //-----------------------------------------------------------------------
+    public void testConvertLocalToUTC_policy() {
+        DateTimeZone zone = DateTimeZone.forID("America/New_York");
+        long hour = DateTimeConstants.MILLIS_PER_HOUR;
+        long gap = new LocalDateTime(2007, 3, 11, 2, 30).toDateTime(DateTimeZone.UTC).getMillis();
+        long overlap = new LocalDateTime(2007, 11, 4, 1, 30).toDateTime(DateTimeZone.UTC).getMillis();
+        long normal = new LocalDateTime(2007, 12, 24, 12, 34).toDateTime(DateTimeZone.UTC).getMillis();
+
+        assertEquals(DateTimeZone.LOCAL_GAP, zone.getLocalTransitionType(gap));
+        assertEquals(DateTimeZone.LOCAL_OVERLAP, zone.getLocalTransitionType(overlap));
+        assertEquals(DateTimeZone.LOCAL_NORMAL, zone.getLocalTransitionType(normal));
+        assertEquals(DateTimeZone.LOCAL_NORMAL, DateTimeZone.UTC.getLocalTransitionType(gap));
+        assertEquals(true, zone.isLocalDateTimeOverlap(new LocalDateTime(2007, 11, 4, 1, 30)));
+        assertEquals(false, zone.isLocalDateTimeOverlap(new LocalDateTime(2007, 11, 4, 2, 30)));
+
+        // 02:30 EST is 03:30 EDT, 02:30 EDT is 01:30 EST
+        assertEquals(gap + 5 * hour, zone.convertLocalToUTC(gap, DateTimeZone.RESOLVE_EARLIER_OFFSET));
+        assertEquals(gap + 4 * hour, zone.convertLocalToUTC(gap, DateTimeZone.RESOLVE_LATER_OFFSET));
+        assertEquals(gap + 5 * hour, zone.convertLocalToUTC(gap, DateTimeZone.RESOLVE_SHIFT_FORWARD));
+        assertEquals(DateTimeZone.INVALID_MILLIS, zone.convertLocalToUTC(gap, DateTimeZone.RESOLVE_REJECT));
+        assertEquals(gap + 5 * hour, zone.convertLocalToUTC(gap, false));
+
+        assertEquals(overlap + 4 * hour, zone.convertLocalToUTC(overlap, DateTimeZone.RESOLVE_EARLIER_OFFSET));
+        assertEquals(overlap + 5 * hour, zone.convertLocalToUTC(overlap, DateTimeZone.RESOLVE_LATER_OFFSET));
+        assertEquals(overlap + 5 * hour, zone.convertLocalToUTC(overlap, DateTimeZone.RESOLVE_SHIFT_FORWARD));
+        assertEquals(overlap + 5 * hour, zone.convertLocalToUTC(overlap, DateTimeZone.RESOLVE_REJECT));
+        assertEquals(overlap + 5 * hour, zone.convertLocalToUTC(overlap, true));
+
+        for (int policy = DateTimeZone.RESOLVE_EARLIER_OFFSET; policy <= DateTimeZone.RESOLVE_REJECT; policy++) {
+            assertEquals(normal + 5 * hour, zone.convertLocalToUTC(normal, policy));
+        }
+        try {
+            zone.convertLocalToUTC(normal, 4);
+            fail();
+        } catch (IllegalArgumentException ex) {}
+
+        LocalDateTime ldt = new LocalDateTime(2007, 3, 11, 2, 30);
+        assertEquals(null, ldt.toDateTime(zone, DateTimeZone.RESOLVE_REJECT));
+        assertEquals(new DateTime(gap + 4 * hour, zone), ldt.toDateTime(zone, DateTimeZone.RESOLVE_LATER_OFFSET));
+    }
+
+    //-----------------------------------------------------------------------
+    public void testGetStartOfDay() {
+        DateTimeZone saoPaulo = DateTimeZone.forID("America/Sao_Paulo");
+        // midnight was skipped when summer time started on 2016-10-16
+        long epochDay = new LocalDateTime(2016, 10, 16, 0, 0).toDateTime(DateTimeZone.UTC).getMillis() / DateTimeConstants.MILLIS_PER_DAY;
+        DateTime start = new DateTime(saoPaulo.getStartOfDay(epochDay), saoPaulo);
+        assertEquals("2016-10-16T01:00:00.000-02:00", start.toString());
+        assertEquals(start, new DateTime(2016, 10, 16, 12, 0, 0, 0, saoPaulo).withTimeAtStartOfDay());
+        assertEquals(start, LocalDate.fromEpochDay(epochDay).toDateTimeAtStartOfDay(saoPaulo));
+        assertEquals(start.getMillis(), saoPaulo.getStartOfDay(epochDay));
+
+        DateTimeZone london = DateTimeZone.forID("Europe/London");
+        assertEquals(new DateTime(2016, 10, 16, 0, 0, 0, 0, london), LocalDate.fromEpochDay(epochDay).toDateTimeAtStartOfDay(london));
+
+        DateTimeZone[] zones = {saoPaulo, london, DateTimeZone.forID("America/Havana"),
+            DateTimeZone.forID("Asia/Tehran"), DateTimeZone.forOffsetHoursMinutes(-5, 30)};
+        for (DateTimeZone zone : zones) {
+            for (long day = epochDay - 3000; day < epochDay + 3000; day++) {
+                long millis = zone.getStartOfDay(day);
+                // the start is in the day, and the instant before it is not
+                assertEquals(day, Math.floor((millis + zone.getOffset(millis)) / (double) DateTimeConstants.MILLIS_PER_DAY), 0.0);
+                assertEquals(day - 1, Math.floor((millis - 1 + zone.getOffset(millis - 1)) / (double) DateTimeConstants.MILLIS_PER_DAY), 0.0);
+            }
+        }
+    }
+
     //-----------------------------------------------------------------------
     public void testToTimeZone() {
         DateTimeZone zone = DateTimeZone.forID("Europe/Paris");
@@ -0,0 +1,58 @@
+package com.datetimewrapper.test;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.FormatUtils;
+import org.joda.time.internal.utils.ISO8601Utils;
+
+/**
+ * This class is a JUnit test for FormatUtils.
+ */
+public class FormatUtilsTest extends TestCase {
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+
+    public static TestSuite suite() {
+        return new TestSuite(FormatUtilsTest.class);
+    }
+
+    public FormatUtilsTest(String name) {
+        super(name);
+    }
+
+    //-----------------------------------------------------------------------
+    public void testAppendPaddedInteger() throws Exception {
+        int[] values = {0, 7, 42, 999, 1000, 12345, 99999999, 123456789, Integer.MAX_VALUE, -5, -1234, Integer.MIN_VALUE};
+        for (int value : values) {
+            for (int size = 0; size <= 12; size++) {
+                String digits = Long.toString(Math.abs((long) value));
+                StringBuilder expected = new StringBuilder(value < 0 ? "-" : "");
+                for (int i = digits.length(); i < size; i++) {
+                    expected.append('0');
+                }
+                expected.append(digits);
+
+                StringBuilder builder = new StringBuilder("x");
+                FormatUtils.appendPaddedInteger(builder, value, size);
+                assertEquals("x" + expected, builder.toString());
+                StringBuffer buffer = new StringBuffer();
+                FormatUtils.appendPaddedInteger(buffer, value, size);
+                assertEquals(expected.toString(), buffer.toString());
+                java.io.StringWriter writer = new java.io.StringWriter();
+                FormatUtils.appendPaddedInteger(writer, value, size);
+                assertEquals(expected.toString(), writer.toString());
+                char[] chars = new char[16];
+                int end = FormatUtils.writePaddedInteger(chars, 1, value, size);
+                assertEquals(expected.toString(), new String(chars, 1, end - 1));
+            }
+        }
+        assertEquals("GMT+01:02:03.004", DateTimeZone.forOffsetMillis(3723004).getID());
+        assertEquals("GMT-00:00:05", DateTimeZone.forOffsetMillis(-5000).getID());
+        assertEquals("-12345-01-01T00:00:00.000Z", ISO8601Utils.format(-451737734400000L, 0));
+    }
+
+}
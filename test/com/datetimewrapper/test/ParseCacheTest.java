@@ -0,0 +1,111 @@
+package com.datetimewrapper.test;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.internal.utils.ParseCache;
+import org.joda.time.internal.utils.ParsedInstant;
+
+/**
+ * This class is a JUnit test for ParseCache.
+ */
+public class ParseCacheTest extends TestCase {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    // 2002-06-09
+    private static final long TEST_TIME_NOW = new DateTime(2002, 6, 9, 0, 0, 0, 0, DateTimeZone.UTC).getMillis();
+
+    private TimeZone originalTimeZone = null;
+    private Locale originalLocale = null;
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+
+    public static TestSuite suite() {
+        return new TestSuite(ParseCacheTest.class);
+    }
+
+    public ParseCacheTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        originalTimeZone = TimeZone.getDefault();
+        originalLocale = Locale.getDefault();
+        DateTimeZone.setDefault(LONDON);
+        Locale.setDefault(Locale.UK);
+    }
+
+    protected void tearDown() throws Exception {
+        TimeZone.setDefault(originalTimeZone);
+        Locale.setDefault(originalLocale);
+        originalTimeZone = null;
+        originalLocale = null;
+    }
+
+    //-----------------------------------------------------------------------
+    public void testParseCache() throws Exception {
+        DateTimeFormatter f = new DateTimeFormatter().withParseCache(3);
+        ParseCache cache = f.getParseCache();
+        assertEquals(4, cache.getSize());
+        DateTime expected = new DateTime(TEST_TIME_NOW, DateTimeZone.forOffsetHours(1));
+        assertEquals(expected, f.parseDateTime("2002-06-09T01:00:00.000+01:00"));
+        assertEquals(expected, f.parseDateTime("2002-06-09T01:00:00.000+01:00"));
+        assertEquals(expected, f.tryParseDateTime("2002-06-09T01:00:00.000+01:00"));
+        assertNull(f.tryParseDateTime("2002-06-09T01:00:00.000+1:00"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        ParsedInstant parsed = new ParsedInstant();
+        StringBuilder text = new StringBuilder("x2002-06-09T01:00");
+        cache.parseInto(parsed, text, 1, 16);
+        assertEquals(TEST_TIME_NOW, parsed.getMillis());
+        // without an offset the result depends on the default zone
+        DateTimeZone.setDefault(DateTimeZone.UTC);
+        assertTrue(cache.tryParse(parsed, text, 1, 16));
+        assertEquals(TEST_TIME_NOW + DateTimeConstants.MILLIS_PER_HOUR, parsed.getMillis());
+        assertEquals(2, cache.getHitCount());
+        assertTrue(cache.tryParse(parsed, text, 1, 16));
+        assertEquals(3, cache.getHitCount());
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        assertTrue(cache.tryParse(parsed, text, 1, 16));
+        assertEquals(TEST_TIME_NOW - 8 * DateTimeConstants.MILLIS_PER_HOUR, parsed.getMillis());
+        assertEquals(3, cache.getHitCount());
+
+        // the counts are summed over the threads parsing
+        final ParseCache shared = new ParseCache(16);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    ParsedInstant result = new ParsedInstant();
+                    for (int j = 0; j < 1000; j++) {
+                        shared.tryParse(result, "2002-06-09T01:00:00.000+01:00");
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+        }
+        // unsynchronized counts may lose increments, but never gain them
+        assertTrue(shared.getHitCount() + shared.getMissCount() <= 4000);
+        assertTrue(shared.getMissCount() <= 4);
+        try {
+            DateTimeFormat.forPattern("yyyy").withParseCache(16);
+            fail();
+        } catch (IllegalStateException ex) {}
+    }
+
+}
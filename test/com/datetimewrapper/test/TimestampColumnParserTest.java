@@ -0,0 +1,76 @@
+package com.datetimewrapper.test;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.internal.utils.TimestampColumnParser;
+
+/**
+ * This class is a JUnit test for TimestampColumnParser.
+ */
+public class TimestampColumnParserTest extends TestCase {
+
+    // 2002-06-09
+    private static final long TEST_TIME_NOW = new DateTime(2002, 6, 9, 0, 0, 0, 0, DateTimeZone.UTC).getMillis();
+
+    // 2002-04-05
+    private static final long TEST_TIME1 = new DateTime(2002, 4, 5, 12, 24, 0, 0, DateTimeZone.UTC).getMillis();
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+
+    public static TestSuite suite() {
+        return new TestSuite(TimestampColumnParserTest.class);
+    }
+
+    public TimestampColumnParserTest(String name) {
+        super(name);
+    }
+
+    //-----------------------------------------------------------------------
+    public void testParse() throws Exception {
+        String csv = "time,value\n2002-04-05T12:24:00.000Z,1\r\n\n\"2002-06-09T01:00:00.005+01:00\",2\n2002-06-09T01:00\n";
+        byte[] bytes = csv.getBytes("US-ASCII");
+        long[] expected = {TimestampColumnParser.INVALID_MILLIS, TEST_TIME1, TEST_TIME_NOW + 5, TEST_TIME_NOW};
+
+        java.nio.LongBuffer out = java.nio.LongBuffer.allocate(5);
+        assertEquals(4, new TimestampColumnParser().parse(java.nio.ByteBuffer.wrap(bytes), out));
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], out.get(i));
+        }
+
+        java.io.File file = java.io.File.createTempFile("timestamps", ".csv");
+        java.io.RandomAccessFile raf = new java.io.RandomAccessFile(file, "rw");
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(2);
+        try {
+            raf.write(bytes);
+            // small chunks split the file between lines
+            long[] values = new TimestampColumnParser(',', 16).parse(raf.getChannel(), pool);
+            assertTrue(java.util.Arrays.equals(expected, values));
+
+            // each chunk is written into its own range of the buffer
+            java.nio.LongBuffer direct = java.nio.ByteBuffer.allocateDirect(6 * 8).asLongBuffer();
+            direct.position(1);
+            assertEquals(4, new TimestampColumnParser(',', 16).parse(raf.getChannel(), pool, direct));
+            assertEquals(5, direct.position());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], direct.get(i + 1));
+            }
+            direct.position(3);
+            try {
+                new TimestampColumnParser(',', 16).parse(raf.getChannel(), pool, direct);
+                fail();
+            } catch (java.nio.BufferOverflowException ex) {}
+            assertEquals(3, direct.position());
+            assertEquals(TEST_TIME_NOW + 5, direct.get(3));
+        } finally {
+            pool.shutdown();
+            raf.close();
+            file.delete();
+        }
+    }
+
+}